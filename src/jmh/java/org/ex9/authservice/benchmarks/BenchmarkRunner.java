@@ -0,0 +1,46 @@
+package org.ex9.authservice.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запускает JMH-бенчмарки для каждого числа потоков из {@code -Djmh.threads} (по умолчанию 1,4,16)
+ * с профилировщиком GC, чтобы видеть пропускную способность и аллокации на операцию.
+ * Аргументы командной строки передаются JMH как есть, например {@code -Djmh.args="JwtService -wi 1"}.
+ * Результаты пишутся в {@code target/jmh-result-t<N>.json}.
+ * @author Краковцев Артём
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Точка входа.
+     *
+     * @param args Аргументы JMH.
+     * @throws RunnerException             Если бенчмарк завершился ошибкой.
+     * @throws CommandLineOptionException Если аргументы JMH некорректны.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        for (String threads : System.getProperty("jmh.threads", "1,4,16").split(",")) {
+            int count = Integer.parseInt(threads.trim());
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(count)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-result-t" + count + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+}
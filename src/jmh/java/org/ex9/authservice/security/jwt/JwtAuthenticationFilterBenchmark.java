@@ -0,0 +1,110 @@
+package org.ex9.authservice.security.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.ex9.authservice.entity.Role;
+import org.ex9.authservice.entity.User;
+import org.ex9.authservice.repository.RoleRepository;
+import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.security.services.UserDetailsImpl;
+import org.ex9.authservice.service.RoleCatalog;
+import org.ex9.authservice.service.TokenVersionService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный проход JWT-фильтра для одного запроса с заглушками {@link UserDetailsService} и версий токенов вместо БД.
+ * @author Краковцев Артём
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"true", "false"})
+    private boolean tokenCache;
+
+    @Param({"true", "false"})
+    private boolean claimsTrust;
+
+    @Param({"true", "false"})
+    private boolean tokenVersion;
+
+    private JwtAuthenticationFilter filter;
+
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = JwtBenchmarkSupport.jwtService(tokenCache, claimsTrust);
+        Role userRole = Role.builder().id("USER").name("User").build();
+        Role adminRole = Role.builder().id("ADMIN").name("Admin").build();
+        User user = User.builder()
+                .login("user1")
+                .password("")
+                .roles(Set.of(userRole, adminRole))
+                .build();
+        UserDetails userDetails = new UserDetailsImpl(user);
+        UserDetailsService userDetailsService = login -> userDetails;
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        Mockito.when(roleRepository.findAll(Mockito.any(Sort.class))).thenReturn(List.of(adminRole, userRole));
+        RoleCatalog roleCatalog = new RoleCatalog(roleRepository);
+        roleCatalog.refresh();
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findTokenVersionByLogin("user1")).thenReturn(Optional.of(0L));
+        TokenVersionService tokenVersionService = new TokenVersionService(userRepository, 100_000, Duration.ofSeconds(10), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, roleCatalog,
+                new TokenDenylist(100_000, new SimpleMeterRegistry()), tokenVersionService, new ObjectMapper().registerModule(new JavaTimeModule()));
+        UserDetails tokenOwner = tokenVersion
+                ? userDetails
+                : org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
+        authorizationHeader = "Bearer " + jwtService.generateToken(tokenOwner);
+    }
+
+    @Benchmark
+    public void doFilter(Blackhole blackhole) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/user-roles/user1");
+        request.addHeader("Authorization", authorizationHeader);
+        FilterChain chain = (req, res) -> {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            blackhole.consume(authentication);
+        };
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+}
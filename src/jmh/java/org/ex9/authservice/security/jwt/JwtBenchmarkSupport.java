@@ -0,0 +1,30 @@
+package org.ex9.authservice.security.jwt;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+/**
+ * Сборка {@link JwtService} без контекста Spring для бенчмарков.
+ * @author Краковцев Артём
+ */
+final class JwtBenchmarkSupport {
+
+    static final String SECRET = "benchmark_secret_code_that_is_long_enough_for_hs256";
+
+    private JwtBenchmarkSupport() {
+    }
+
+    static JwtService jwtService(boolean tokenCache, boolean claimsTrust) {
+        JwtKeyProvider keyProvider = new JwtKeyProvider(new JwtKeyProperties(SignatureAlgorithm.HS256, null, List.of()), SECRET);
+        JwtService service = new JwtService(new VerifiedTokenCache(tokenCache, 50_000, new SimpleMeterRegistry()), keyProvider, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(service, "claimsTrustEnabled", claimsTrust);
+        ReflectionTestUtils.setField(service, "claimsTrustMaxAge", 3_600L);
+        service.init();
+        return service;
+    }
+
+}
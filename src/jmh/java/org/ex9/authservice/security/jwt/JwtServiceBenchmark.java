@@ -0,0 +1,90 @@
+package org.ex9.authservice.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка JWT: подпись, полный разбор и проверка через кэш проверенных токенов,
+ * а также отказ для мусорного и поддельного токенов.
+ * @author Краковцев Артём
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"true", "false"})
+    private boolean tokenCache;
+
+    private JwtService jwtService;
+
+    private UserDetails user;
+
+    private String token;
+
+    private String forgedToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = JwtBenchmarkSupport.jwtService(tokenCache, false);
+        user = User.withUsername("user1")
+                .password("")
+                .authorities(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority("ADMIN"))
+                .build();
+        token = jwtService.generateToken(user);
+        forgedToken = token.substring(0, token.lastIndexOf('.') + 1) + "forged-signature";
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims getClaims() {
+        return jwtService.getClaims(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token, user);
+    }
+
+    @Benchmark
+    public Object rejectMalformed() {
+        return reject("Bearer%20garbage");
+    }
+
+    @Benchmark
+    public Object rejectForged() {
+        return reject(forgedToken);
+    }
+
+    private Object reject(String candidate) {
+        try {
+            return jwtService.verify(candidate);
+        } catch (JwtException e) {
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.ex9.authservice.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка токена по списку отзыва, заполненному {@code revoked} записями.
+ * @author Краковцев Артём
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenDenylistBenchmark {
+
+    @Param({"1000", "100000"})
+    private int revoked;
+
+    private TokenDenylist denylist;
+
+    private VerifiedToken activeToken;
+
+    private VerifiedToken revokedToken;
+
+    @Setup
+    public void setUp() {
+        denylist = new TokenDenylist(100_000, new SimpleMeterRegistry());
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        String lastId = null;
+        for (int i = 0; i < revoked; i++) {
+            lastId = UUID.randomUUID().toString();
+            denylist.add(lastId, expiresAt);
+        }
+        activeToken = new VerifiedToken(UUID.randomUUID().toString(), "user1", List.of("USER"), null, Instant.now(), expiresAt);
+        revokedToken = new VerifiedToken(lastId, "user1", List.of("USER"), null, Instant.now(), expiresAt);
+    }
+
+    @Benchmark
+    public boolean checkActive() {
+        return denylist.isRevoked(activeToken);
+    }
+
+    @Benchmark
+    public boolean checkRevoked() {
+        return denylist.isRevoked(revokedToken);
+    }
+
+}
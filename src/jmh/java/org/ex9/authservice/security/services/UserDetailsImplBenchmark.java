@@ -0,0 +1,54 @@
+package org.ex9.authservice.security.services;
+
+import org.ex9.authservice.entity.Role;
+import org.ex9.authservice.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение списка ролей пользователя, вызывается на каждом авторизованном запросе.
+ * @author Краковцев Артём
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDetailsImplBenchmark {
+
+    @Param({"1", "3", "10"})
+    private int roleCount;
+
+    private UserDetailsImpl userDetails;
+
+    @Setup
+    public void setUp() {
+        Set<Role> roles = new LinkedHashSet<>();
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(Role.builder().id("ROLE_" + i).name("Role " + i).build());
+        }
+        userDetails = new UserDetailsImpl(User.builder().login("user1").password("").roles(roles).build());
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userDetails.getAuthorities();
+    }
+
+}
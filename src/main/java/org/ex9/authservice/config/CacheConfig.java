@@ -0,0 +1,41 @@
+package org.ex9.authservice.config;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
+
+import java.util.Objects;
+
+/**
+ * Конфигурация кэшей приложения.
+ * Параметры кэшей (размер, TTL) задаются в {@code spring.cache.caffeine.spec}.
+ * @author Краковцев Артём
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Имя кэша данных пользователей для Spring Security.
+     */
+    public static final String USERS_CACHE = "users";
+
+    /**
+     * Создаёт кэш данных пользователей.
+     * Удаление из кэша внутри транзакции откладывается до её фиксации,
+     * чтобы параллельный запрос не вернул в кэш устаревшие данные.
+     *
+     * @param cacheManager Менеджер кэшей.
+     * @return Кэш пользователей.
+     */
+    @Bean
+    public UserCache userCache(CacheManager cacheManager) {
+        return new SpringCacheBasedUserCache(
+                new TransactionAwareCacheDecorator(Objects.requireNonNull(cacheManager.getCache(USERS_CACHE))));
+    }
+
+}
@@ -0,0 +1,27 @@
+package org.ex9.authservice.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация метрик приложения.
+ * Метрики публикуются в формате Prometheus на {@code /actuator/prometheus}.
+ * @author Краковцев Артём
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Включает поддержку {@link io.micrometer.core.annotation.Timed} на методах бинов.
+     *
+     * @param meterRegistry Реестр метрик.
+     * @return Аспект, замеряющий время выполнения аннотированных методов.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+}
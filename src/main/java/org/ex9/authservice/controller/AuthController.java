@@ -6,28 +6,55 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.dto.BatchIntrospectionRequestDto;
+import org.ex9.authservice.dto.IntrospectionRequestDto;
+import org.ex9.authservice.dto.IntrospectionResponseDto;
+import org.ex9.authservice.dto.RefreshRequestDto;
+import org.ex9.authservice.dto.RevokeTokenRequestDto;
 import org.ex9.authservice.dto.SignInRequestDto;
 import org.ex9.authservice.dto.SignUpRequestDto;
+import org.ex9.authservice.dto.TokenResponseDto;
+import org.ex9.authservice.security.lockout.LoginAttemptService;
 import org.ex9.authservice.service.AuthService;
+import org.ex9.authservice.service.TokenIntrospectionService;
+import org.ex9.authservice.service.TokenRevocationService;
+import org.ex9.authservice.web.AuthRateLimits;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("auth")
 @RequiredArgsConstructor
 @Tag(name = "Authentication", description = "API for user registration and authentication")
 public class AuthController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
 
+    private final TokenIntrospectionService introspectionService;
+
+    private final TokenRevocationService revocationService;
+
+    private final AuthRateLimits rateLimits;
+
+    private final LoginAttemptService loginAttemptService;
+
     @Operation(summary = "Register a new user", description = "Creates a new user with the provided login, password, and email.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User registered successfully"),
-            @ApiResponse(responseCode = "400", description = "User already exists or invalid input provided")
+            @ApiResponse(responseCode = "400", description = "User already exists or invalid input provided"),
+            @ApiResponse(responseCode = "429", description = "Too many registrations from this address")
     })
     @PutMapping("/signup")
     public ResponseEntity<Void> signUp(@Valid @RequestBody SignUpRequestDto request) {
@@ -35,15 +62,94 @@ public class AuthController {
         return ResponseEntity.ok().build();
     }
 
-    @Operation(summary = "Authenticate user", description = "Authenticates a user with login and password and returns a JWT token.")
+    @Operation(summary = "Authenticate user", description = "Authenticates a user with login and password and returns an access and a refresh token.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "JWT token returned"),
-            @ApiResponse(responseCode = "401", description = "Invalid login or password")
+            @ApiResponse(responseCode = "200", description = "Token pair returned"),
+            @ApiResponse(responseCode = "401", description = "Invalid login or password"),
+            @ApiResponse(responseCode = "429", description = "Too many sign-in attempts from this address or for this login, or the login is temporarily locked")
     })
     @PostMapping("/signin")
-    public ResponseEntity<String> signIn(@Valid @RequestBody SignInRequestDto request) {
-        String token = authService.signIn(request);
-        return ResponseEntity.ok(token);
+    public ResponseEntity<TokenResponseDto> signIn(@Valid @RequestBody SignInRequestDto request) {
+        rateLimits.checkSignInByLogin(request.getLogin());
+        loginAttemptService.checkAllowed(request.getLogin());
+        TokenResponseDto tokens = authService.signIn(request);
+        return ResponseEntity.ok(tokens);
+    }
+
+    @Operation(summary = "Refresh tokens", description = "Exchanges a refresh token for a new token pair. Each refresh token can be used once.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "New token pair returned"),
+            @ApiResponse(responseCode = "401", description = "Refresh token is invalid, expired or already used")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponseDto> refresh(@Valid @RequestBody RefreshRequestDto request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    @Operation(summary = "Log out", description = "Revokes the access token of the request and, if given, the whole refresh token family.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Tokens revoked"),
+            @ApiResponse(responseCode = "400", description = "Authorization header is missing or is not a bearer token"),
+            @ApiResponse(responseCode = "401", description = "Access token is invalid, expired or revoked")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @Valid @RequestBody(required = false) RefreshRequestDto request) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX) || authorization.length() == BEARER_PREFIX.length()) {
+            return ResponseEntity.badRequest().build();
+        }
+        revocationService.logout(authorization.substring(BEARER_PREFIX.length()), request == null ? null : request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Revoke access token",
+            description = "Revokes an access token before it expires. Only accessible to users with ADMIN role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Token revoked"),
+            @ApiResponse(responseCode = "400", description = "Token is invalid, expired or has no id"),
+            @ApiResponse(responseCode = "403", description = "Access denied: ADMIN role required")
+    })
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(@Valid @RequestBody RevokeTokenRequestDto request) {
+        return revocationService.revoke(request.getToken())
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.badRequest().build();
+    }
+
+    @Operation(summary = "Revoke all sessions of a user",
+            description = "Invalidates every access and refresh token of the user. Only accessible to users with ADMIN role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Sessions revoked"),
+            @ApiResponse(responseCode = "403", description = "Access denied: ADMIN role required"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/sessions/{login}/revoke")
+    public ResponseEntity<Void> revokeAllSessions(@PathVariable String login) {
+        revocationService.revokeAllSessions(login);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Introspect token", description = "Checks a JWT and returns whether it is active along with its claims.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Introspection result returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid input provided")
+    })
+    @PostMapping("/introspect")
+    public ResponseEntity<IntrospectionResponseDto> introspect(@Valid @RequestBody IntrospectionRequestDto request) {
+        return ResponseEntity.ok(introspectionService.introspect(request.getToken()));
+    }
+
+    @Operation(summary = "Introspect tokens in batch",
+            description = "Checks up to " + BatchIntrospectionRequestDto.MAX_TOKENS + " JWTs in one call. Results are returned in request order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Introspection results returned"),
+            @ApiResponse(responseCode = "400", description = "Empty or too large batch")
+    })
+    @PostMapping("/introspect/batch")
+    public ResponseEntity<List<IntrospectionResponseDto>> introspectBatch(@Valid @RequestBody BatchIntrospectionRequestDto request) {
+        return ResponseEntity.ok(introspectionService.introspectBatch(request.getTokens()));
     }
 
 }
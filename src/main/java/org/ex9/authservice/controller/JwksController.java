@@ -0,0 +1,42 @@
+package org.ex9.authservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.security.jwt.JwtKeyProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS", description = "Public keys for offline JWT verification")
+public class JwksController {
+
+    private final JwtKeyProvider keyProvider;
+
+    @Value("${jwt.jwks.max-age:300}")
+    private long maxAge;
+
+    @Operation(summary = "Get signing keys",
+            description = "Returns public token signing keys as a JWK Set. Empty when tokens are signed with a shared HMAC secret.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "JWK Set returned"),
+            @ApiResponse(responseCode = "304", description = "Key set has not changed since the ETag in If-None-Match")
+    })
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic())
+                .eTag(keyProvider.getJwksETag())
+                .body(keyProvider.getJwks());
+    }
+
+}
@@ -0,0 +1,58 @@
+package org.ex9.authservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.entity.Role;
+import org.ex9.authservice.service.RoleCatalog;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collection;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("roles")
+@Tag(name = "Roles", description = "Role catalog")
+public class RoleController {
+
+    private final RoleCatalog roleCatalog;
+
+    @Operation(summary = "Get all roles",
+            description = "Returns the role catalog from memory. Clients should revalidate with If-None-Match.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Roles returned"),
+            @ApiResponse(responseCode = "304", description = "Catalog has not changed since the ETag in If-None-Match")
+    })
+    @GetMapping
+    public ResponseEntity<Collection<Role>> getRoles() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(roleCatalog.getETag())
+                .body(roleCatalog.getRoles());
+    }
+
+    @Operation(summary = "Reload the role catalog",
+            description = "Rereads the roles table immediately instead of waiting for the scheduled refresh. "
+                    + "Only accessible to users with ADMIN role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Catalog reloaded, response contains the current roles"),
+            @ApiResponse(responseCode = "403", description = "Access denied: ADMIN role required")
+    })
+    @PostMapping("/refresh")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Collection<Role>> refresh() {
+        roleCatalog.refresh();
+        return ResponseEntity.ok()
+                .eTag(roleCatalog.getETag())
+                .body(roleCatalog.getRoles());
+    }
+
+}
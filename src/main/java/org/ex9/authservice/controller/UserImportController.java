@@ -0,0 +1,74 @@
+package org.ex9.authservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.service.UserImportReader;
+import org.ex9.authservice.service.UserImportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("users")
+@Tag(name = "User Import", description = "API for bulk user import")
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    private final ObjectMapper objectMapper;
+
+    @Operation(summary = "Import users in bulk",
+            description = "Streams users as NDJSON or CSV (header: login,email,password|passwordHash[,roles]) and answers with "
+                    + "NDJSON events: one per rejected row, progress after every chunk and a final summary. "
+                    + "Only accessible to users with ADMIN role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import processed, see streamed events"),
+            @ApiResponse(responseCode = "400", description = "CSV header is missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Access denied: ADMIN role required")
+    })
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, UserImportReader.Format.TEXT_CSV_VALUE})
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public void importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+
+        OutputStream out = response.getOutputStream();
+        Reader reader = new InputStreamReader(request.getInputStream(),
+                contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8);
+        userImportService.importUsers(reader, UserImportReader.Format.of(contentType), event -> {
+            try {
+                // set on the first event so that a rejected header is still rendered as a JSON error
+                if (response.getContentType() == null) {
+                    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                }
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+                if (!"error".equals(event.getType())) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+}
@@ -5,7 +5,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.dto.BulkUserRoleRequestDto;
+import org.ex9.authservice.dto.BulkUserRoleResponseDto;
+import org.ex9.authservice.dto.RoleMembersResponseDto;
 import org.ex9.authservice.dto.UserRoleRequestDto;
 import org.ex9.authservice.dto.UserRoleResponseDto;
 import org.ex9.authservice.service.UserRoleService;
@@ -18,8 +23,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.UUID;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("user-roles")
@@ -44,6 +52,40 @@ public class UserRolesController {
         return ResponseEntity.ok().build();
     }
 
+    @Operation(summary = "Assign or revoke roles for many users",
+            description = "Adds the roles in assign and removes the roles in revoke for every listed login in one transaction. "
+                    + "Unknown logins are reported, not rejected. Only accessible to users with ADMIN role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Roles changed, response contains counts and unknown logins"),
+            @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "403", description = "Access denied: ADMIN role required"),
+            @ApiResponse(responseCode = "404", description = "Role not found")
+    })
+    @PutMapping("/bulk")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<BulkUserRoleResponseDto> updateRolesInBulk(@Valid @RequestBody BulkUserRoleRequestDto request) {
+
+        return ResponseEntity.ok(userRoleService.updateRolesInBulk(request));
+    }
+
+    @Operation(summary = "List users that have a role",
+            description = "Returns one page of logins of users with the role, ordered by user id. "
+                    + "Pass nextAfter from the previous page as after to get the next one. Only accessible to users with ADMIN role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of logins returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid page size or after value"),
+            @ApiResponse(responseCode = "403", description = "Access denied: ADMIN role required"),
+            @ApiResponse(responseCode = "404", description = "Role not found")
+    })
+    @GetMapping("/by-role/{roleId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<RoleMembersResponseDto> getRoleMembers(@PathVariable String roleId,
+                                                                 @RequestParam(required = false) UUID after,
+                                                                 @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+
+        return ResponseEntity.ok(userRoleService.getRoleMembers(roleId, after, limit));
+    }
+
     @Operation(summary = "Get user roles",
             description = "Retrieves the roles for a specified user. Accessible to ADMIN or the user themselves.")
     @ApiResponses({
@@ -0,0 +1,39 @@
+package org.ex9.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO для пакетной проверки токенов.
+ * @author Краковцев Артём
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request for batch token introspection")
+public class BatchIntrospectionRequestDto {
+
+    /**
+     * Максимальное число токенов в одном запросе.
+     */
+    public static final int MAX_TOKENS = 1000;
+
+    /**
+     * Проверяемые JWT-токены.
+     */
+    @NotEmpty(message = "Tokens array must not be empty")
+    @Size(max = MAX_TOKENS, message = "Tokens array must contain at most " + MAX_TOKENS + " tokens")
+    @ArraySchema(
+            schema = @Schema(description = "JWT access token"),
+            maxItems = MAX_TOKENS
+    )
+    private List<String> tokens;
+
+}
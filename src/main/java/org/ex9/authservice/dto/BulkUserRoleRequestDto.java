@@ -0,0 +1,65 @@
+package org.ex9.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO для массового назначения и отзыва ролей.
+ * @author Краковцев Артём
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request for assigning or revoking roles for many users at once")
+public class BulkUserRoleRequestDto {
+
+    /**
+     * Максимальное число логинов в одном запросе.
+     */
+    public static final int MAX_LOGINS = 10_000;
+
+    /**
+     * Логины пользователей.
+     */
+    @NotEmpty(message = "Logins array must not be empty")
+    @Size(max = MAX_LOGINS, message = "Logins array must contain at most " + MAX_LOGINS + " logins")
+    @ArraySchema(
+            schema = @Schema(description = "User login", example = "user1"),
+            maxItems = MAX_LOGINS
+    )
+    private List<String> logins;
+
+    /**
+     * Роли, которые нужно добавить.
+     */
+    @ArraySchema(schema = @Schema(description = "Role identifier to add", example = "CREDIT_USER"))
+    private List<String> assign;
+
+    /**
+     * Роли, которые нужно отозвать.
+     */
+    @ArraySchema(schema = @Schema(description = "Role identifier to remove", example = "GUEST"))
+    private List<String> revoke;
+
+    /**
+     * Проверяет, что запрос что-то меняет.
+     *
+     * @return true, если указаны роли для добавления или отзыва.
+     */
+    @JsonIgnore
+    @Schema(hidden = true)
+    @AssertTrue(message = "At least one of assign and revoke must not be empty")
+    public boolean isChangeRequested() {
+        return (assign != null && !assign.isEmpty()) || (revoke != null && !revoke.isEmpty());
+    }
+
+}
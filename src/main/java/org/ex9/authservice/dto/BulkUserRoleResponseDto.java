@@ -0,0 +1,43 @@
+package org.ex9.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO с результатом массового изменения ролей.
+ * @author Краковцев Артём
+ */
+@Data
+@Builder
+@Schema(description = "Result of a bulk role change")
+public class BulkUserRoleResponseDto {
+
+    /**
+     * Число найденных пользователей.
+     */
+    @Schema(description = "Number of requested logins that exist", example = "9998")
+    private int matchedUsers;
+
+    /**
+     * Логины, для которых пользователь не найден.
+     */
+    @ArraySchema(schema = @Schema(description = "Login that does not exist", example = "ghost"))
+    private List<String> notFound;
+
+    /**
+     * Число добавленных связей пользователь–роль.
+     */
+    @Schema(description = "Number of user-role links created", example = "9000")
+    private long assigned;
+
+    /**
+     * Число удалённых связей пользователь–роль.
+     */
+    @Schema(description = "Number of user-role links removed", example = "120")
+    private long revoked;
+
+}
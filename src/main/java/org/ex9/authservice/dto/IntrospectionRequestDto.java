@@ -0,0 +1,28 @@
+package org.ex9.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO для проверки одного токена.
+ * @author Краковцев Артём
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request for token introspection")
+public class IntrospectionRequestDto {
+
+    /**
+     * Проверяемый JWT-токен.
+     */
+    @NotBlank(message = "Token must not be blank")
+    @Schema(description = "JWT access token",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private String token;
+
+}
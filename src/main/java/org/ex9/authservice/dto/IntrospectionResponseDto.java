@@ -0,0 +1,61 @@
+package org.ex9.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO с результатом проверки токена (по мотивам RFC 7662).
+ * Для неактивного токена заполняется только поле active.
+ * @author Краковцев Артём
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Token introspection result")
+public class IntrospectionResponseDto {
+
+    /**
+     * Валиден ли токен.
+     */
+    @Schema(description = "Whether the token is valid and not expired", example = "true")
+    private boolean active;
+
+    /**
+     * Логин владельца токена.
+     */
+    @Schema(description = "Token subject (user login)", example = "user1")
+    private String sub;
+
+    /**
+     * Роли из токена.
+     */
+    @ArraySchema(schema = @Schema(description = "Role identifier", example = "USER"))
+    private List<String> roles;
+
+    /**
+     * Время выпуска, секунды Unix.
+     */
+    @Schema(description = "Issued at, seconds since epoch", example = "1760700000")
+    private Long iat;
+
+    /**
+     * Время истечения, секунды Unix.
+     */
+    @Schema(description = "Expires at, seconds since epoch", example = "1760701200")
+    private Long exp;
+
+    /**
+     * Создаёт результат для неактивного токена. Экземпляр новый на каждый вызов: DTO изменяемый.
+     *
+     * @return Результат с active = false.
+     */
+    public static IntrospectionResponseDto inactive() {
+        return IntrospectionResponseDto.builder().active(false).build();
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.ex9.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO для обновления пары токенов.
+ * @author Краковцев Артём
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request for token refresh")
+public class RefreshRequestDto {
+
+    /**
+     * Refresh-токен, полученный при входе или предыдущем обновлении.
+     */
+    @NotBlank(message = "Refresh token must not be blank")
+    @Schema(description = "Opaque refresh token",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private String refreshToken;
+
+}
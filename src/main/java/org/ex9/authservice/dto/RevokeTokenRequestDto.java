@@ -0,0 +1,28 @@
+package org.ex9.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO для отзыва access-токена администратором.
+ * @author Краковцев Артём
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request for access token revocation")
+public class RevokeTokenRequestDto {
+
+    /**
+     * Отзываемый JWT-токен.
+     */
+    @NotBlank(message = "Token must not be blank")
+    @Schema(description = "JWT access token",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private String token;
+
+}
@@ -0,0 +1,39 @@
+package org.ex9.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO со страницей пользователей, имеющих роль.
+ * @author Краковцев Артём
+ */
+@Data
+@Builder
+@Schema(description = "Page of users that have a role, ordered by user id")
+public class RoleMembersResponseDto {
+
+    /**
+     * Идентификатор роли.
+     */
+    @Schema(description = "Role id", example = "ADMIN")
+    private String roleId;
+
+    /**
+     * Логины пользователей страницы.
+     */
+    @ArraySchema(schema = @Schema(description = "Login of a user with the role", example = "user1"))
+    private List<String> logins;
+
+    /**
+     * Значение параметра after для следующей страницы — идентификатор последнего пользователя, null на последней странице.
+     */
+    @Schema(description = "Value of the after parameter for the next page, null on the last page",
+            example = "3f2b6c1e-8a4d-4c1b-9e7a-5d0c2f1a9b3e")
+    private UUID nextAfter;
+
+}
@@ -0,0 +1,36 @@
+package org.ex9.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO с парой токенов, выдаваемой при входе и обновлении.
+ * @author Краковцев Артём
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Access and refresh token pair")
+public class TokenResponseDto {
+
+    /**
+     * Короткоживущий JWT для доступа к API.
+     */
+    @Schema(description = "JWT access token")
+    private String accessToken;
+
+    /**
+     * Долгоживущий непрозрачный токен для получения новой пары.
+     */
+    @Schema(description = "Opaque refresh token, valid for a single use")
+    private String refreshToken;
+
+    /**
+     * Время жизни access-токена в секундах.
+     */
+    @Schema(description = "Access token lifetime in seconds", example = "1200")
+    private long expiresIn;
+
+}
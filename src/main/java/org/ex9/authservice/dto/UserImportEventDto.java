@@ -0,0 +1,60 @@
+package org.ex9.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Событие потока ответа массового импорта: ошибка строки, прогресс после пакета или итог.
+ * @author Краковцев Артём
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Bulk import progress event, one JSON object per line")
+public class UserImportEventDto {
+
+    /**
+     * Тип события.
+     */
+    @Schema(description = "Event type", example = "progress", allowableValues = {"error", "progress", "summary"})
+    private String type;
+
+    /**
+     * Номер строки входного потока, для ошибок.
+     */
+    @Schema(description = "1-based line number of the rejected row", example = "42")
+    private Long line;
+
+    /**
+     * Логин отклонённой строки, если удалось прочитать.
+     */
+    @Schema(description = "Login of the rejected row", example = "user1")
+    private String login;
+
+    /**
+     * Причина отказа.
+     */
+    @Schema(description = "Why the row was rejected", example = "login already exists")
+    private String message;
+
+    /**
+     * Число прочитанных строк.
+     */
+    @Schema(description = "Rows read so far", example = "5000")
+    private Long processed;
+
+    /**
+     * Число созданных пользователей.
+     */
+    @Schema(description = "Users created so far", example = "4990")
+    private Long imported;
+
+    /**
+     * Число отклонённых строк.
+     */
+    @Schema(description = "Rows rejected so far", example = "10")
+    private Long failed;
+
+}
@@ -0,0 +1,58 @@
+package org.ex9.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO одной строки массового импорта пользователей.
+ * Должно быть заполнено ровно одно из полей password и passwordHash.
+ * @author Краковцев Артём
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One user in a bulk import stream")
+public class UserImportRowDto {
+
+    /**
+     * Логин пользователя.
+     */
+    @NotBlank(message = "login must not be blank")
+    @Schema(description = "User login", example = "user1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String login;
+
+    /**
+     * Электронная почта пользователя.
+     */
+    @NotBlank(message = "email must not be blank")
+    @Email(message = "email is not valid")
+    @Schema(description = "User email address", example = "user1@example.com", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String email;
+
+    /**
+     * Пароль в открытом виде, хэшируется при импорте.
+     */
+    @Schema(description = "Plain-text password, hashed during import", example = "password123")
+    private String password;
+
+    /**
+     * Готовый хэш BCrypt, с префиксом {bcrypt} или без него.
+     */
+    @Schema(description = "Existing BCrypt hash, optionally prefixed with {bcrypt}",
+            example = "{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoO5p3IWvz2qNfV3v4b5E0M5Zp1Y2w3k1a")
+    private String passwordHash;
+
+    /**
+     * Роли пользователя, по умолчанию USER.
+     */
+    @ArraySchema(schema = @Schema(description = "Role identifier", example = "USER"))
+    private List<@NotBlank(message = "roles must not contain blank entries") String> roles;
+
+}
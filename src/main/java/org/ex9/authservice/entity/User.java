@@ -1,5 +1,6 @@
 package org.ex9.authservice.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -10,13 +11,18 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDate;
 import java.util.LinkedHashSet;
@@ -27,17 +33,34 @@ import java.util.UUID;
 @Setter
 @Entity
 @Builder
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-login")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.LOGIN_CONSTRAINT, columnNames = "login"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
+    /**
+     * Имя ограничения уникальности логина, совпадает с именем, которое PostgreSQL дал ему в create-users-table.
+     */
+    public static final String LOGIN_CONSTRAINT = "users_login_key";
+
+    /**
+     * Имя ограничения уникальности email.
+     */
+    public static final String EMAIL_CONSTRAINT = "users_email_key";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "id", nullable = false)
     private UUID id;
 
     @NotNull
+    @NaturalId
     @Column(name = "login", nullable = false, length = Integer.MAX_VALUE)
     private String login;
 
@@ -54,7 +77,12 @@ public class User {
     @Column(name = "create_date", nullable = false)
     private LocalDate createDate;
 
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users-roles")
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -1,6 +1,8 @@
 package org.ex9.authservice.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.ex9.authservice.dto.ErrorResponse;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -8,6 +10,8 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.stream.Collectors;
 
@@ -66,6 +70,56 @@ public class ControllerExceptionHandler {
         return new ErrorResponse(ex.getMessage());
     }
 
+    /**
+     * Обрабатывает исключение, когда refresh-токен недействителен.
+     *
+     * @param ex Исключение InvalidRefreshTokenException.
+     * @return Ответ с HTTP-статусом 401 и сообщением об ошибке.
+     */
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public ErrorResponse handleInvalidRefreshTokenException(InvalidRefreshTokenException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+
+    /**
+     * Обрабатывает переполнение пула хэширования паролей.
+     *
+     * @param ex Исключение PasswordHashingUnavailableException.
+     * @return Ответ с HTTP-статусом 503, заголовком Retry-After и сообщением об ошибке.
+     */
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(ex.getMessage()));
+    }
+
+    /**
+     * Обрабатывает превышение лимита частоты запросов.
+     *
+     * @param ex Исключение RateLimitExceededException.
+     * @return Ответ с HTTP-статусом 429, заголовком Retry-After и сообщением об ошибке.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(ex.getMessage()));
+    }
+
+    /**
+     * Обрабатывает исключение, когда поток импорта не удаётся разобрать.
+     *
+     * @param ex Исключение InvalidImportFormatException.
+     * @return Ответ с HTTP-статусом 400 и сообщением об ошибке.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidImportFormatException.class)
+    public ErrorResponse handleInvalidImportFormatException(InvalidImportFormatException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+
     /**
      * Обрабатывает исключение, когда доступ запрещён.
      *
@@ -93,6 +147,34 @@ public class ControllerExceptionHandler {
         return new ErrorResponse("Validation error: " + message);
     }
 
+    /**
+     * Обрабатывает ошибки валидации параметров запроса.
+     *
+     * @param ex Исключение HandlerMethodValidationException.
+     * @return Ответ с HTTP-статусом 400 и описанием ошибок валидации.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ErrorResponse handleMethodValidationException(HandlerMethodValidationException ex) {
+        String message = ex.getParameterValidationResults().stream()
+                .flatMap(result -> result.getResolvableErrors().stream()
+                        .map(error -> result.getMethodParameter().getParameterName() + ": " + error.getDefaultMessage()))
+                .collect(Collectors.joining("; "));
+        return new ErrorResponse("Validation error: " + message);
+    }
+
+    /**
+     * Обрабатывает параметры запроса, которые не приводятся к нужному типу.
+     *
+     * @param ex Исключение MethodArgumentTypeMismatchException.
+     * @return Ответ с HTTP-статусом 400 и именем параметра.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ErrorResponse handleTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        return new ErrorResponse("Validation error: " + ex.getName() + ": invalid value");
+    }
+
     /**
      * Обрабатывает непредвиденные ошибки сервера.
      *
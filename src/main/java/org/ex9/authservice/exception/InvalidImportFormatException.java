@@ -0,0 +1,9 @@
+package org.ex9.authservice.exception;
+
+public class InvalidImportFormatException extends RuntimeException {
+
+    public InvalidImportFormatException(String message) {
+        super(message);
+    }
+
+}
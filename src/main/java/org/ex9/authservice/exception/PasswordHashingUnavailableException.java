@@ -0,0 +1,15 @@
+package org.ex9.authservice.exception;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
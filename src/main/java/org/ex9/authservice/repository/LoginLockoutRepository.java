@@ -0,0 +1,112 @@
+package org.ex9.authservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Пакетная запись счётчиков неудачных входов в обход JPA.
+ * @author Краковцев Артём
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoginLockoutRepository {
+
+    private static final String UPSERT = """
+            insert into login_lockouts (login, window_start, previous_failures, current_failures, blocked_until)
+            values (?, ?, ?, ?, ?)
+            on conflict (login) do update set
+                window_start = excluded.window_start,
+                previous_failures = excluded.previous_failures,
+                current_failures = excluded.current_failures,
+                blocked_until = excluded.blocked_until""";
+
+    private static final String DELETE = "delete from login_lockouts where login = ?";
+
+    private static final String DELETE_STALE =
+            "delete from login_lockouts where window_start < ? and (blocked_until is null or blocked_until < ?)";
+
+    private static final String SELECT_ACTIVE = """
+            select login, window_start, previous_failures, current_failures, blocked_until
+            from login_lockouts
+            where window_start >= ? or blocked_until > ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Счётчик неудачных входов логина.
+     *
+     * @param login            Логин.
+     * @param windowStart      Начало текущего окна.
+     * @param previousFailures Неудачи в предыдущем окне.
+     * @param currentFailures  Неудачи в текущем окне.
+     * @param blockedUntil     Момент, до которого вход запрещён, или null.
+     */
+    public record Row(String login, Instant windowStart, int previousFailures, int currentFailures, Instant blockedUntil) {
+    }
+
+    /**
+     * Вставляет или обновляет счётчики одним пакетом.
+     *
+     * @param rows Счётчики.
+     */
+    public void upsertAll(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.login());
+            ps.setTimestamp(2, Timestamp.from(row.windowStart()));
+            ps.setInt(3, row.previousFailures());
+            ps.setInt(4, row.currentFailures());
+            ps.setTimestamp(5, row.blockedUntil() == null ? null : Timestamp.from(row.blockedUntil()));
+        });
+    }
+
+    /**
+     * Удаляет счётчики логинов одним пакетом.
+     *
+     * @param logins Логины.
+     */
+    public void deleteAll(Collection<String> logins) {
+        if (logins.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE, logins.stream().map(login -> new Object[]{login}).toList());
+    }
+
+    /**
+     * Удаляет счётчики, которые уже не влияют на вход.
+     *
+     * @param windowStartBefore Граница начала окна: более старые окна не учитываются.
+     * @param now               Текущий момент.
+     * @return Число удалённых строк.
+     */
+    public int deleteStale(Instant windowStartBefore, Instant now) {
+        return jdbcTemplate.update(DELETE_STALE, Timestamp.from(windowStartBefore), Timestamp.from(now));
+    }
+
+    /**
+     * Находит счётчики, которые ещё влияют на вход.
+     *
+     * @param windowStartFrom Минимальное начало окна.
+     * @param now             Текущий момент.
+     * @return Счётчики.
+     */
+    public List<Row> findActive(Instant windowStartFrom, Instant now) {
+        return jdbcTemplate.query(SELECT_ACTIVE, (rs, i) -> {
+            Timestamp blockedUntil = rs.getTimestamp("blocked_until");
+            return new Row(rs.getString("login"),
+                    rs.getTimestamp("window_start").toInstant(),
+                    rs.getInt("previous_failures"),
+                    rs.getInt("current_failures"),
+                    blockedUntil == null ? null : blockedUntil.toInstant());
+        }, Timestamp.from(windowStartFrom), Timestamp.from(now));
+    }
+
+}
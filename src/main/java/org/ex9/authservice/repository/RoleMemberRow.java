@@ -0,0 +1,13 @@
+package org.ex9.authservice.repository;
+
+import java.util.UUID;
+
+/**
+ * Строка страницы пользователей с ролью.
+ *
+ * @param id    Идентификатор пользователя, по нему выполняется keyset-пагинация.
+ * @param login Логин.
+ * @author Краковцев Артём
+ */
+public record RoleMemberRow(UUID id, String login) {
+}
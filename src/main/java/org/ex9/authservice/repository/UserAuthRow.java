@@ -0,0 +1,17 @@
+package org.ex9.authservice.repository;
+
+import java.util.UUID;
+
+/**
+ * Строка проекции пользователя для аутентификации: одна строка на роль пользователя.
+ * Выбираются только нужные столбцы, сущности User и Role не создаются и не попадают в контекст персистентности.
+ *
+ * @param id           Идентификатор пользователя.
+ * @param login        Логин.
+ * @param password     Хэш пароля.
+ * @param tokenVersion Версия токенов пользователя.
+ * @param roleId       Идентификатор роли или null, если ролей нет.
+ * @author Краковцев Артём
+ */
+public record UserAuthRow(UUID id, String login, String password, long tokenVersion, String roleId) {
+}
@@ -0,0 +1,104 @@
+package org.ex9.authservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Пакетная запись пользователей для массового импорта в обход JPA.
+ * @author Краковцев Артём
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserImportRepository {
+
+    private static final String INSERT_USER =
+            "insert into users (id, login, password, email, create_date) values (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER_ROLE = "insert into user_roles (user_id, role_id) values (?, ?)";
+
+    private static final String SELECT_EXISTING =
+            "select login, email from users where login in (:logins) or email in (:emails)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Пользователь, готовый к вставке.
+     *
+     * @param id           Идентификатор.
+     * @param login        Логин.
+     * @param email        Электронная почта.
+     * @param passwordHash Хэш пароля с префиксом алгоритма.
+     * @param roles        Идентификаторы ролей.
+     */
+    public record NewUser(UUID id, String login, String email, String passwordHash, Collection<String> roles) {
+    }
+
+    /**
+     * Уже занятые логины и адреса.
+     *
+     * @param logins Занятые логины.
+     * @param emails Занятые адреса.
+     */
+    public record Existing(Set<String> logins, Set<String> emails) {
+    }
+
+    /**
+     * Находит одним запросом, какие из логинов и адресов уже заняты.
+     *
+     * @param logins Проверяемые логины.
+     * @param emails Проверяемые адреса.
+     * @return Занятые логины и адреса.
+     */
+    public Existing findExisting(Collection<String> logins, Collection<String> emails) {
+        Existing existing = new Existing(new HashSet<>(), new HashSet<>());
+        if (logins.isEmpty() && emails.isEmpty()) {
+            return existing;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("logins", logins.isEmpty() ? List.of("") : logins)
+                .addValue("emails", emails.isEmpty() ? List.of("") : emails);
+        namedParameterJdbcTemplate.query(SELECT_EXISTING, params, rs -> {
+            existing.logins().add(rs.getString("login"));
+            existing.emails().add(rs.getString("email"));
+        });
+        return existing;
+    }
+
+    /**
+     * Вставляет пользователей и их роли двумя пакетными запросами.
+     * Должен вызываться в транзакции: при нарушении ограничения откатывается весь пакет.
+     *
+     * @param users Пользователи.
+     */
+    public void insertAll(List<NewUser> users) {
+        LocalDate createDate = LocalDate.now();
+        jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), (ps, user) -> {
+            ps.setObject(1, user.id());
+            ps.setString(2, user.login());
+            ps.setString(3, user.passwordHash());
+            ps.setString(4, user.email());
+            ps.setObject(5, createDate);
+        });
+        List<Object[]> userRoles = new ArrayList<>();
+        for (NewUser user : users) {
+            for (String role : user.roles()) {
+                userRoles.add(new Object[]{user.id(), role});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, userRoles);
+    }
+
+}
@@ -0,0 +1,23 @@
+package org.ex9.authservice.repository;
+
+import org.ex9.authservice.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Поиск пользователя по натуральному ключу login через кэш второго уровня Hibernate.
+ * @author Краковцев Артём
+ */
+public interface UserNaturalIdRepository {
+
+    /**
+     * Находит пользователя по логину.
+     * Логин разрешается в идентификатор через кэш натуральных ключей, сам пользователь и его роли
+     * берутся из кэша второго уровня; к БД запрос идёт только при промахе.
+     *
+     * @param login Логин пользователя.
+     * @return Пользователь, если найден.
+     */
+    Optional<User> findByLogin(String login);
+
+}
@@ -3,13 +3,25 @@ package org.ex9.authservice.repository;
 import jakarta.validation.constraints.NotNull;
 import org.ex9.authservice.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserNaturalIdRepository {
 
-    Optional<User> findByLogin(String login);
+    @Query("select new org.ex9.authservice.repository.UserAuthRow(u.id, u.login, u.password, u.tokenVersion, r.id) "
+            + "from User u left join u.roles r where u.login = :login")
+    List<UserAuthRow> findAuthRowsByLogin(String login);
+
+    @Query("select r.id from User u left join u.roles r where u.login = :login")
+    List<String> findRoleIdsByLogin(String login);
+
+    @Query("select u.tokenVersion from User u where u.login = :login")
+    Optional<Long> findTokenVersionByLogin(String login);
 
     boolean existsByEmail(@NotNull String email);
 
@@ -17,4 +29,9 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByEmail(String email);
 
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newPassword where u.login = :login and u.password = :oldPassword")
+    int updatePasswordIfUnchanged(String login, String oldPassword, String newPassword);
+
 }
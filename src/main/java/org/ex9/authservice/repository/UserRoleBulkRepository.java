@@ -0,0 +1,177 @@
+package org.ex9.authservice.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.entity.User;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Множественные изменения таблицы user_roles одним SQL-запросом на пакет логинов.
+ * Здесь же постраничное чтение пользователей роли с поиском по индексу user_roles (role_id, user_id).
+ * Изменяющие запросы возвращают ({@code returning}) затронутых пользователей, чтобы версия токенов увеличивалась только у них.
+ * Запросы идут мимо Hibernate, поэтому после изменений кэш второго уровня для User и коллекций User.roles сбрасывается.
+ * @author Краковцев Артём
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserRoleBulkRepository {
+
+    private static final String SELECT_LOGINS = "select login from users where login in (:logins)";
+
+    private static final String INCREMENT_TOKEN_VERSION = "update users set token_version = token_version + 1 where login = :login";
+
+    private static final String SELECT_MEMBERS = """
+            select ur.user_id, u.login from user_roles ur join users u on u.id = ur.user_id
+            where ur.role_id = :roleId and ur.user_id > :after
+            order by ur.user_id
+            limit :limit""";
+
+    private static final String ASSIGN = """
+            insert into user_roles (user_id, role_id)
+            select u.id, r.id from users u cross join roles r
+            where u.login in (:logins) and r.id in (:roles)
+            on conflict do nothing
+            returning user_id""";
+
+    private static final String REVOKE = """
+            delete from user_roles
+            where role_id in (:roles) and user_id in (select u.id from users u where u.login in (:logins))
+            returning user_id""";
+
+    private static final String INCREMENT_TOKEN_VERSIONS = "update users set token_version = token_version + 1 where id in (:ids) returning login";
+
+    private static final String USER_ROLES_COLLECTION = User.class.getName() + ".roles";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Возвращает логины, для которых существуют пользователи.
+     *
+     * @param logins Проверяемые логины.
+     * @return Существующие логины.
+     */
+    public List<String> findExistingLogins(Collection<String> logins) {
+        return namedParameterJdbcTemplate.queryForList(SELECT_LOGINS, new MapSqlParameterSource("logins", logins), String.class);
+    }
+
+    /**
+     * Возвращает пользователей роли, следующих за {@code after} в порядке идентификаторов.
+     * Поиск начинается с позиции {@code after} в индексе, поэтому читаются только строки страницы.
+     *
+     * @param roleId Идентификатор роли.
+     * @param after  Идентификатор, после которого начинается страница.
+     * @param limit  Максимальное число строк.
+     * @return Пользователи в порядке идентификаторов.
+     */
+    public List<RoleMemberRow> findMembersAfter(String roleId, UUID after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("roleId", roleId)
+                .addValue("after", after)
+                .addValue("limit", limit);
+        return namedParameterJdbcTemplate.query(SELECT_MEMBERS, params,
+                (rs, rowNum) -> new RoleMemberRow(rs.getObject(1, UUID.class), rs.getString(2)));
+    }
+
+    /**
+     * Добавляет роли пользователям, уже имеющиеся связи пропускаются.
+     *
+     * @param logins Логины пользователей.
+     * @param roles  Идентификаторы ролей.
+     * @return Идентификаторы пользователей, по одному на каждую добавленную связь.
+     */
+    public List<UUID> assign(Collection<String> logins, Collection<String> roles) {
+        return evictRoleCollections(namedParameterJdbcTemplate.queryForList(ASSIGN, params(logins, roles), UUID.class));
+    }
+
+    /**
+     * Отзывает роли у пользователей.
+     *
+     * @param logins Логины пользователей.
+     * @param roles  Идентификаторы ролей.
+     * @return Идентификаторы пользователей, по одному на каждую удалённую связь.
+     */
+    public List<UUID> revoke(Collection<String> logins, Collection<String> roles) {
+        return evictRoleCollections(namedParameterJdbcTemplate.queryForList(REVOKE, params(logins, roles), UUID.class));
+    }
+
+    /**
+     * Увеличивает версию токенов пользователей, после чего выданные им токены перестают приниматься.
+     * Закэшированные сущности этих пользователей сбрасываются так же, как коллекции ролей.
+     *
+     * @param userIds Идентификаторы пользователей.
+     * @return Логины изменённых пользователей.
+     */
+    public List<String> incrementTokenVersions(Collection<UUID> userIds) {
+        List<String> logins = namedParameterJdbcTemplate.queryForList(INCREMENT_TOKEN_VERSIONS, new MapSqlParameterSource("ids", userIds), String.class);
+        if (!logins.isEmpty()) {
+            List<UUID> ids = List.copyOf(userIds);
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            ids.forEach(id -> cache.evictEntityData(User.class, id));
+            afterCompletion(() -> ids.forEach(id -> cache.evictEntityData(User.class, id)));
+        }
+        return logins;
+    }
+
+    /**
+     * Атомарно увеличивает версию токенов одного пользователя: параллельные увеличения не теряются,
+     * даже если сущность прочитана из кэша второго уровня. Сбрасывается только закэшированная сущность этого пользователя.
+     *
+     * @param user Пользователь.
+     * @return false, если пользователь уже удалён.
+     */
+    public boolean incrementTokenVersion(User user) {
+        if (namedParameterJdbcTemplate.update(INCREMENT_TOKEN_VERSION, new MapSqlParameterSource("login", user.getLogin())) == 0) {
+            return false;
+        }
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(User.class, user.getId());
+        afterCompletion(() -> cache.evictEntityData(User.class, user.getId()));
+        return true;
+    }
+
+    /**
+     * Сбрасывает закэшированные коллекции ролей сразу и ещё раз после завершения транзакции,
+     * чтобы параллельное чтение до коммита не вернуло в кэш старые роли.
+     *
+     * @param updated Пользователи изменённых связей.
+     * @return Тот же список.
+     */
+    private List<UUID> evictRoleCollections(List<UUID> updated) {
+        if (updated.isEmpty()) {
+            return updated;
+        }
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictCollectionData(USER_ROLES_COLLECTION);
+        afterCompletion(() -> cache.evictCollectionData(USER_ROLES_COLLECTION));
+        return updated;
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static MapSqlParameterSource params(Collection<String> logins, Collection<String> roles) {
+        return new MapSqlParameterSource()
+                .addValue("logins", logins)
+                .addValue("roles", roles);
+    }
+
+}
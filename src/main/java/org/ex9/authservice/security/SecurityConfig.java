@@ -1,10 +1,12 @@
 package org.ex9.authservice.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.ex9.authservice.security.jwt.JwtAuthenticationFilter;
-import org.ex9.authservice.security.jwt.JwtService;
 import org.ex9.authservice.security.oauth.OAuth2SuccessHandler;
-import org.ex9.authservice.security.services.UserDetailsServiceImpl;
+import org.ex9.authservice.security.password.BoundedPasswordEncoder;
+import org.ex9.authservice.security.password.PasswordHashingProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,10 +16,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 /**
  * Конфигурация безопасности для приложения.
  * @author Краковцев Артём
@@ -28,17 +33,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     /**
-     * Сервис для работы с JWT.
+     * Фильтр проверки JWT-токена.
      */
-    private final JwtService jwtService;
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     private final OAuth2SuccessHandler oAuth2SuccessHandler;
 
-    /**
-     * Сервис для загрузки данных пользователя.
-     */
-    private final UserDetailsServiceImpl userDetailsService;
-
     /**
      * Настраивает цепочку фильтров безопасности.
      *
@@ -53,6 +53,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                                 .requestMatchers("/auth/signup",
                                         "/auth/signin",
+                                        "/auth/refresh",
+                                        "/auth/introspect",
+                                        "/auth/introspect/batch",
+                                        "/.well-known/jwks.json",
+                                        "/actuator/health/**",
+                                        "/actuator/prometheus",
                                         "/swagger-ui/**",
                                         "v3/api-docs/**",
                                         "/login",
@@ -68,20 +74,40 @@ public class SecurityConfig {
                 .formLogin(AbstractHttpConfigurer::disable)
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(new JwtAuthenticationFilter(jwtService, userDetailsService),
-                        UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
     /**
-     * Создаёт шифровщик паролей.
+     * Отключает автоматическую регистрацию JWT-фильтра как сервлетного фильтра.
+     * Фильтр должен выполняться только внутри цепочки Spring Security,
+     * иначе токен проверяется повторно на каждом запросе.
      *
-     * @return BCryptPasswordEncoder для шифрования паролей.
+     * @return Выключенная регистрация фильтра.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Создаёт шифровщик паролей, выполняющий хэширование в отдельном ограниченном пуле.
+     * Новые хэши сохраняются с префиксом алгоритма ({@code {bcrypt}}) и настроенной стоимостью,
+     * хэши без префикса считаются BCrypt и проверяются как раньше.
+     *
+     * @param properties    Настройки хэширования.
+     * @param meterRegistry Реестр метрик.
+     * @return PasswordEncoder для шифрования паролей.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(properties.bcryptStrength())));
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return new BoundedPasswordEncoder(delegating, properties, meterRegistry);
     }
 
     /**
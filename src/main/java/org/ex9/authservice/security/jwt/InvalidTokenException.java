@@ -0,0 +1,65 @@
+package org.ex9.authservice.security.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.Getter;
+
+/**
+ * Отказ в проверке токена без разбора и проверки подписи: токен структурно невалиден
+ * или уже был отклонён недавно. Исключение создаётся без стека вызовов, поэтому отказ почти ничего не стоит.
+ * @author Краковцев Артём
+ */
+@Getter
+public class InvalidTokenException extends JwtException {
+
+    /**
+     * Причина отказа.
+     */
+    private final Reason reason;
+
+    /**
+     * Создаёт исключение.
+     *
+     * @param reason  Причина отказа.
+     * @param message Сообщение.
+     */
+    public InvalidTokenException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Стек вызовов не заполняется: отказ — ожидаемый результат проверки, а не ошибка в коде.
+     *
+     * @return Это исключение.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    /**
+     * Причина, по которой токен недействителен.
+     */
+    public enum Reason {
+        MALFORMED, EXPIRED, BAD_SIGNATURE;
+
+        /**
+         * Определяет причину по исключению полной проверки токена.
+         *
+         * @param e Исключение проверки.
+         * @return Причина отказа.
+         */
+        public static Reason of(RuntimeException e) {
+            if (e instanceof InvalidTokenException invalid) {
+                return invalid.getReason();
+            }
+            if (e instanceof ExpiredJwtException) {
+                return EXPIRED;
+            }
+            return e instanceof SignatureException ? BAD_SIGNATURE : MALFORMED;
+        }
+    }
+
+}
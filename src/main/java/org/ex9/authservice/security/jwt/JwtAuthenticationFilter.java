@@ -1,10 +1,19 @@
 package org.ex9.authservice.security.jwt;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.dto.ErrorResponse;
+import org.ex9.authservice.security.services.TokenUserDetails;
+import org.ex9.authservice.service.RoleCatalog;
+import org.ex9.authservice.service.TokenVersionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,11 +32,23 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String INVALID_TOKEN_CHALLENGE = "Bearer error=\"invalid_token\"";
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final RoleCatalog roleCatalog;
+    private final TokenDenylist tokenDenylist;
+    private final TokenVersionService tokenVersionService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Обрабатывает входящий запрос, проверяет JWT-токен и устанавливает аутентификацию.
+     * На невалидный, истёкший, отозванный токен и токен с устаревшей версией пользователя
+     * сразу отвечает 401 без дальнейшей обработки запроса.
+     * Для токенов с актуальной версией и для свежих токенов без версии пользователь строится из claims,
+     * для остальных загружается из БД.
      *
      * @param request     HTTP-запрос.
      * @param response    HTTP-ответ.
@@ -38,21 +59,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String jwt = authHeader.substring(7);
-            String username = jwtService.getLogin(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtService.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedToken token;
+            try {
+                token = jwtService.verify(authHeader.substring(BEARER_PREFIX.length()));
+            } catch (JwtException | IllegalArgumentException e) {
+                reject(response);
+                return;
+            }
+            if (tokenDenylist.isRevoked(token) || !tokenVersionService.isCurrent(token)) {
+                reject(response);
+                return;
+            }
+
+            UserDetails userDetails = token.version() != null || jwtService.canTrustClaims(token)
+                    ? TokenUserDetails.from(token, roleCatalog::authority)
+                    : userDetailsService.loadUserByUsername(token.subject());
+            if (jwtService.validateToken(token, userDetails)) {
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         filterChain.doFilter(request, response);
     }
 
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, INVALID_TOKEN_CHALLENGE);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("Invalid or expired token"));
+    }
+
 }
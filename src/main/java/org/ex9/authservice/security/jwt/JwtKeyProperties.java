@@ -0,0 +1,37 @@
+package org.ex9.authservice.security.jwt;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.core.io.Resource;
+
+import java.util.List;
+
+/**
+ * Настройки ключей подписи JWT.
+ * Для HS256 используется общий секрет {@code jwt.secret}, для RS256/ES256 — пары ключей из {@code keys}.
+ * Ротация выполняется добавлением нового ключа и переключением {@code active-key-id};
+ * старые ключи остаются в списке только с публичной частью, пока не истекут выпущенные ими токены.
+ *
+ * @param algorithm   Алгоритм подписи.
+ * @param activeKeyId Идентификатор ключа ({@code kid}), которым подписываются новые токены.
+ * @param keys        Известные ключи.
+ * @author Краковцев Артём
+ */
+@ConfigurationProperties(prefix = "jwt.signing")
+public record JwtKeyProperties(@DefaultValue("HS256") SignatureAlgorithm algorithm,
+                               String activeKeyId,
+                               @DefaultValue List<Key> keys) {
+
+    /**
+     * Описание одного ключа.
+     *
+     * @param id         Идентификатор ключа ({@code kid}).
+     * @param privateKey Закрытый ключ в PEM (PKCS#8), обязателен только для активного ключа.
+     * @param publicKey  Открытый ключ в PEM (X.509).
+     */
+    public record Key(String id, Resource privateKey, Resource publicKey) {
+
+    }
+
+}
@@ -0,0 +1,174 @@
+package org.ex9.authservice.security.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Хранилище ключей подписи JWT.
+ * Выбирает ключ проверки по заголовку {@code kid} и публикует открытые ключи в формате JWKS.
+ * @author Краковцев Артём
+ */
+@Component
+public class JwtKeyProvider extends SigningKeyResolverAdapter {
+
+    /**
+     * Алгоритм подписи новых токенов.
+     */
+    @Getter
+    private final SignatureAlgorithm algorithm;
+
+    /**
+     * Идентификатор ключа новых токенов, null для HS256.
+     */
+    @Getter
+    private final String activeKeyId;
+
+    /**
+     * Ключ подписи новых токенов.
+     */
+    @Getter
+    private final Key signingKey;
+
+    /**
+     * Ключи проверки по идентификатору.
+     */
+    private final Map<String, Key> verificationKeys;
+
+    /**
+     * Открытые ключи в формате JWKS.
+     */
+    @Getter
+    private final Map<String, Object> jwks;
+
+    /**
+     * ETag для JWKS, меняется вместе с набором ключей.
+     */
+    @Getter
+    private final String jwksETag;
+
+    /**
+     * Загружает ключи из настроек.
+     *
+     * @param properties Настройки ключей.
+     * @param secret     Общий секрет для HS256.
+     */
+    public JwtKeyProvider(JwtKeyProperties properties, @Value("${jwt.secret:}") String secret) {
+        this.algorithm = properties.algorithm();
+        JWKSet jwkSet;
+        if (algorithm.isHmac()) {
+            this.activeKeyId = null;
+            this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            this.verificationKeys = Map.of();
+            jwkSet = new JWKSet();
+        } else {
+            this.activeKeyId = properties.activeKeyId();
+            this.verificationKeys = new LinkedHashMap<>();
+            Key active = null;
+            List<JWK> jwkList = new ArrayList<>();
+            String keyAlgorithm = algorithm.getFamilyName().equals("ECDSA") ? "EC" : "RSA";
+            for (JwtKeyProperties.Key key : properties.keys()) {
+                PublicKey publicKey = PemKeys.readPublicKey(key.publicKey(), keyAlgorithm);
+                verificationKeys.put(key.id(), publicKey);
+                jwkList.add(toJwk(key.id(), publicKey));
+                if (key.id().equals(activeKeyId)) {
+                    if (key.privateKey() == null) {
+                        throw new IllegalStateException("Active JWT key " + activeKeyId + " has no private key");
+                    }
+                    active = PemKeys.readPrivateKey(key.privateKey(), keyAlgorithm);
+                }
+            }
+            if (active == null) {
+                throw new IllegalStateException("Active JWT key " + activeKeyId + " is not configured");
+            }
+            this.signingKey = active;
+            jwkSet = new JWKSet(jwkList);
+        }
+        this.jwks = jwkSet.toJSONObject(true);
+        this.jwksETag = "\"" + sha256Hex(jwkSet.toString(true)) + "\"";
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        return resolve(header.getKeyId());
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, String plaintext) {
+        return resolve(header.getKeyId());
+    }
+
+    /**
+     * Находит ключ проверки по идентификатору.
+     *
+     * @param keyId Значение заголовка {@code kid}.
+     * @return Ключ проверки.
+     */
+    private Key resolve(String keyId) {
+        if (algorithm.isHmac()) {
+            return signingKey;
+        }
+        if (keyId == null) {
+            throw new MalformedJwtException("JWT has no key id");
+        }
+        Key key = verificationKeys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id " + keyId);
+        }
+        return key;
+    }
+
+    private JWK toJwk(String keyId, PublicKey publicKey) {
+        JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(algorithm.getValue());
+        if (publicKey instanceof RSAPublicKey rsaKey) {
+            return new RSAKey.Builder(rsaKey)
+                    .keyID(keyId)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(jwsAlgorithm)
+                    .build();
+        }
+        ECPublicKey ecKey = (ECPublicKey) publicKey;
+        return new ECKey.Builder(Curve.forECParameterSpec(ecKey.getParams()), ecKey)
+                .keyID(keyId)
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(jwsAlgorithm)
+                .build();
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
@@ -1,32 +1,60 @@
 package org.ex9.authservice.security.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Сервис для работы с JWT-токенами: генерация, валидация и извлечение данных.
  * @author Краковцев Артём
  */
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
     /**
-     * Секретный ключ для подписи токена.
+     * Максимальная длина токена. Выданные сервисом токены короче 2 КБ, длиннее — заведомо чужие.
      */
-    @Value("${jwt.secret}")
-    private String secret;
+    static final int MAX_TOKEN_LENGTH = 8192;
+
+    /**
+     * Кэш уже проверенных токенов.
+     */
+    private final VerifiedTokenCache tokenCache;
+
+    /**
+     * Ключи подписи и проверки токенов.
+     */
+    private final JwtKeyProvider keyProvider;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
 
     /**
      * Время действия токена в миллисекундах.
@@ -34,8 +62,47 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    /**
+     * Разрешает строить пользователя из claims токена без обращения к БД.
+     */
+    @Value("${jwt.claims-trust.enabled:false}")
+    private boolean claimsTrustEnabled;
+
+    /**
+     * Максимальный возраст токена в секундах, в течение которого его claims считаются актуальными.
+     */
+    @Value("${jwt.claims-trust.max-age:0}")
+    private long claimsTrustMaxAge;
+
+    /**
+     * Потокобезопасный парсер токенов, переиспользуется между запросами.
+     */
+    private JwtParser parser;
+
+    /**
+     * Таймеры проверки токенов по результату.
+     */
+    private final Map<VerificationOutcome, Timer> verificationTimers = new EnumMap<>(VerificationOutcome.class);
+
+    /**
+     * Инициализирует парсер, выбирающий ключ проверки по заголовку {@code kid}, и метрики проверки.
+     */
+    @PostConstruct
+    void init() {
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyProvider)
+                .build();
+        for (VerificationOutcome outcome : VerificationOutcome.values()) {
+            verificationTimers.put(outcome, Timer.builder("auth.token.verification")
+                    .description("JWT verification, including verified-token cache hits")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
     /**
      * Генерирует JWT-токен для пользователя.
+     * Для пользователя из БД в токен записывается его текущая версия токенов.
      *
      * @param userDetails Данные пользователя.
      * @return JWT-токен в виде строки.
@@ -46,28 +113,126 @@ public class JwtService {
                 .map(GrantedAuthority::getAuthority)
                 .toList()
         );
+        if (userDetails instanceof UserDetailsImpl user) {
+            claims.put(VerifiedToken.VERSION_CLAIM, user.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
+    /**
+     * Возвращает время жизни выдаваемых токенов.
+     *
+     * @return Время жизни в секундах.
+     */
+    public long getExpiresIn() {
+        return expiration / 1000;
+    }
+
     /**
      * Создаёт JWT-токен с указанными claims и субъектом.
+     * Каждый токен получает уникальный {@code jti}, по которому его можно отозвать.
      *
      * @param claims  Дополнительные данные токена (например, роли).
      * @param subject Логин пользователя.
      * @return JWT-токен в виде строки.
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-
-        return Jwts.builder()
+        long now = System.currentTimeMillis();
+        JwtBuilder builder = Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration));
+        if (keyProvider.getActiveKeyId() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, keyProvider.getActiveKeyId());
+        }
+        return builder
+                .signWith(keyProvider.getSigningKey(), keyProvider.getAlgorithm())
                 .compact();
     }
 
+    /**
+     * Проверяет подпись, срок действия и субъект токена за один разбор.
+     * Повторно предъявленный токен берётся из кэша без повторной проверки.
+     * Структурно невалидный или недавно отклонённый токен отклоняется до разбора и проверки подписи.
+     *
+     * @param token JWT-токен.
+     * @return Неизменяемый проверенный токен.
+     * @throws io.jsonwebtoken.JwtException Если токен невалиден или истёк.
+     */
+    public VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        VerificationOutcome outcome = VerificationOutcome.MALFORMED;
+        try {
+            checkStructure(token);
+            VerifiedToken verified = tokenCache.getOrVerify(token, this::parseAndVerify);
+            outcome = VerificationOutcome.OK;
+            return verified;
+        } catch (InvalidTokenException e) {
+            outcome = VerificationOutcome.valueOf(e.getReason().name());
+            throw e;
+        } catch (ExpiredJwtException e) {
+            outcome = VerificationOutcome.EXPIRED;
+            throw e;
+        } catch (SignatureException e) {
+            outcome = VerificationOutcome.BAD_SIGNATURE;
+            throw e;
+        } catch (JwtException | IllegalArgumentException e) {
+            outcome = VerificationOutcome.MALFORMED;
+            throw e;
+        } finally {
+            verificationTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Проверяет, что токен похож на подписанный JWS: ограниченная длина, три непустых сегмента base64url.
+     *
+     * @param token JWT-токен.
+     * @throws InvalidTokenException Если токен структурно невалиден.
+     */
+    static void checkStructure(String token) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.MALFORMED, "JWT is empty or too long");
+        }
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++dots > 2) {
+                    break;
+                }
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                throw new InvalidTokenException(InvalidTokenException.Reason.MALFORMED, "JWT contains characters outside base64url");
+            }
+        }
+        if (dots != 2 || segmentLength == 0) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.MALFORMED, "JWT must have three non-empty segments");
+        }
+    }
+
+    /**
+     * Полностью разбирает и проверяет токен.
+     *
+     * @param token JWT-токен.
+     * @return Неизменяемый проверенный токен.
+     */
+    private VerifiedToken parseAndVerify(String token) {
+        Claims claims = getClaims(token);
+        if (claims.getSubject() == null || claims.getSubject().isBlank()) {
+            throw new MalformedJwtException("JWT has no subject");
+        }
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("JWT has no expiration");
+        }
+        return VerifiedToken.from(claims);
+    }
+
     /**
      * Извлекает claims из JWT-токена.
      *
@@ -75,11 +240,7 @@ public class JwtService {
      * @return Объект Claims с данными токена.
      */
     public Claims getClaims(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parser()
-                .setSigningKey(key)
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -89,7 +250,7 @@ public class JwtService {
      * @return Логин пользователя.
      */
     public String getLogin(String token) {
-        return getClaims(token).getSubject();
+        return verify(token).subject();
     }
 
     /**
@@ -100,18 +261,41 @@ public class JwtService {
      * @return true, если токен валиден, иначе false.
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getLogin(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return validateToken(verify(token), userDetails);
     }
 
     /**
-     * Проверяет, истёк ли срок действия токена.
+     * Проверяет, что уже проверенный токен принадлежит пользователю.
+     * Срок действия и подпись проверены в {@link #verify(String)}.
      *
-     * @param token JWT-токен.
-     * @return true, если срок действия истёк, иначе false.
+     * @param token       Проверенный токен.
+     * @param userDetails Данные пользователя.
+     * @return true, если токен выпущен для этого пользователя.
+     */
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return token.subject().equals(userDetails.getUsername());
+    }
+
+    /**
+     * Проверяет, можно ли доверять ролям из токена без повторной загрузки пользователя.
+     * Доверие ограничено возрастом токена, чтобы изменения ролей вступали в силу не позже чем через max-age.
+     *
+     * @param token Проверенный токен.
+     * @return true, если токен достаточно свежий.
+     */
+    public boolean canTrustClaims(VerifiedToken token) {
+        if (!claimsTrustEnabled || token.issuedAt() == null) {
+            return false;
+        }
+        Duration age = Duration.between(token.issuedAt(), Instant.now());
+        return age.getSeconds() < claimsTrustMaxAge;
+    }
+
+    /**
+     * Результат проверки токена для метрик.
      */
-    private boolean isTokenExpired(String token) {
-        return getClaims(token).getExpiration().before(new Date());
+    private enum VerificationOutcome {
+        OK, EXPIRED, BAD_SIGNATURE, MALFORMED
     }
 
 }
@@ -0,0 +1,188 @@
+package org.ex9.authservice.security.jwt;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Список отозванных access-токенов в памяти.
+ * Перед хеш-таблицей стоит фильтр Блума: для неотозванного токена проверка почти всегда заканчивается
+ * на нескольких чтениях битов без обращения к таблице. Записи живут до истечения срока действия токена,
+ * после чего удаляются, а фильтр перестраивается.
+ * @author Краковцев Артём
+ */
+@Component
+public class TokenDenylist {
+
+    /**
+     * Число хеш-функций фильтра, даёт около 1% ложных срабатываний при заполнении до расчётной ёмкости.
+     */
+    private static final int HASH_FUNCTIONS = 7;
+
+    /**
+     * Число бит фильтра на один ожидаемый токен.
+     */
+    private static final int BITS_PER_TOKEN = 10;
+
+    /**
+     * Ожидаемое число одновременно отозванных токенов.
+     */
+    private final int expectedSize;
+
+    /**
+     * Отозванные токены: jti -> момент истечения токена.
+     */
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    /**
+     * Текущий фильтр Блума, заменяется целиком при перестроении.
+     */
+    private volatile BloomFilter filter;
+
+    /**
+     * Создаёт пустой список и регистрирует метрику его размера.
+     *
+     * @param expectedSize  Ожидаемое число одновременно отозванных токенов.
+     * @param meterRegistry Реестр метрик.
+     */
+    public TokenDenylist(@Value("${jwt.revocation.expected-size:100000}") int expectedSize, MeterRegistry meterRegistry) {
+        this.expectedSize = expectedSize;
+        this.filter = new BloomFilter(expectedSize);
+        Gauge.builder("auth.token.denylist.size", revoked, Map::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет, отозван ли токен. Не блокирует и не обращается к БД.
+     *
+     * @param token Проверенный токен.
+     * @return true, если токен отозван.
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        String id = token.id();
+        return id != null && filter.mightContain(id) && revoked.containsKey(id);
+    }
+
+    /**
+     * Добавляет токен в список. Уже истёкшие токены не добавляются.
+     *
+     * @param id        Идентификатор токена (jti).
+     * @param expiresAt Момент истечения токена.
+     */
+    public synchronized void add(String id, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now()) || revoked.putIfAbsent(id, expiresAt) != null) {
+            return;
+        }
+        if (revoked.size() > filter.capacity) {
+            rebuild();
+        } else {
+            filter.put(id);
+        }
+    }
+
+    /**
+     * Удаляет истёкшие токены и перестраивает фильтр по оставшимся.
+     *
+     * @param now Текущий момент.
+     * @return Число удалённых токенов.
+     */
+    public synchronized int purgeExpired(Instant now) {
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        int removed = before - revoked.size();
+        if (removed > 0) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    /**
+     * Возвращает число отозванных токенов в списке.
+     *
+     * @return Размер списка.
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Строит новый фильтр по текущему содержимому и публикует его одной записью.
+     * Фильтр растёт вдвое, если токенов больше расчётной ёмкости.
+     */
+    private void rebuild() {
+        int capacity = expectedSize;
+        while (capacity < revoked.size()) {
+            capacity *= 2;
+        }
+        BloomFilter rebuilt = new BloomFilter(capacity);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    /**
+     * Фильтр Блума на массиве long с двойным хешированием FNV-1a.
+     * Запись идёт под блокировкой списка, чтение выполняется без блокировок.
+     */
+    private static final class BloomFilter {
+
+        private final int capacity;
+
+        private final long bitCount;
+
+        private final AtomicLongArray words;
+
+        private BloomFilter(int capacity) {
+            this.capacity = Math.max(capacity, 1);
+            this.bitCount = (long) this.capacity * BITS_PER_TOKEN;
+            this.words = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+        }
+
+        private void put(String id) {
+            long h1 = fnv1a(id);
+            long h2 = mix(h1);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                words.getAndUpdate(word, value -> value | mask);
+            }
+        }
+
+        private boolean mightContain(String id) {
+            long h1 = fnv1a(id);
+            long h2 = mix(h1);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long fnv1a(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash | 1;
+        }
+
+    }
+
+}
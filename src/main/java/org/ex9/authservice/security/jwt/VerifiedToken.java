@@ -0,0 +1,49 @@
+package org.ex9.authservice.security.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Неизменяемый результат проверки JWT-токена.
+ * Создаётся один раз после проверки подписи, срока действия и субъекта,
+ * после чего используется для всех дальнейших решений без повторного разбора токена.
+ *
+ * @param id        Идентификатор токена (claim {@code jti}), null для токенов, выпущенных без него.
+ * @param subject   Логин пользователя (claim {@code sub}).
+ * @param roles     Роли пользователя из claim {@code roles}.
+ * @param version   Версия токенов пользователя (claim {@code ver}), null для токенов, выпущенных без неё.
+ * @param issuedAt  Момент выпуска токена.
+ * @param expiresAt Момент истечения срока действия токена.
+ * @author Краковцев Артём
+ */
+public record VerifiedToken(String id, String subject, List<String> roles, Long version, Instant issuedAt, Instant expiresAt) {
+
+    /**
+     * Имя claim с версией токенов пользователя.
+     */
+    static final String VERSION_CLAIM = "ver";
+
+    /**
+     * Создаёт объект из уже проверенных claims.
+     *
+     * @param claims Claims токена, прошедшего проверку подписи.
+     * @return Проверенный токен.
+     */
+    static VerifiedToken from(Claims claims) {
+        List<?> rawRoles = claims.get("roles", List.class);
+        List<String> roles = rawRoles == null
+                ? List.of()
+                : rawRoles.stream().map(String::valueOf).toList();
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                roles,
+                claims.get(VERSION_CLAIM, Long.class),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant()
+        );
+    }
+
+}
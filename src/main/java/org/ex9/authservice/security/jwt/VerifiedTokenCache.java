@@ -0,0 +1,185 @@
+package org.ex9.authservice.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру кэш проверенных JWT-токенов.
+ * Ключом служит SHA-256 от исходного токена, запись живёт до истечения срока действия самого токена.
+ * Повторные запросы с тем же токеном обходятся без проверки подписи и разбора JSON.
+ * Отклонённые токены запоминаются в отдельном небольшом кэше: повторно предъявленный плохой токен
+ * отклоняется по дайджесту без разбора и без построения стека исключения.
+ * @author Краковцев Артём
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * Имя кэша в метриках.
+     */
+    private static final String CACHE_NAME = "jwt.verified-tokens";
+
+    /**
+     * Имя кэша отклонённых токенов в метриках.
+     */
+    private static final String REJECTED_CACHE_NAME = "jwt.rejected-tokens";
+
+    /**
+     * Включён ли кэш.
+     */
+    private final boolean enabled;
+
+    /**
+     * Кэш: дайджест токена -> проверенный токен.
+     */
+    private final Cache<ByteBuffer, VerifiedToken> cache;
+
+    /**
+     * Кэш: дайджест отклонённого токена -> причина отказа.
+     */
+    private final Cache<ByteBuffer, InvalidTokenException.Reason> rejected;
+
+    /**
+     * Прототип дайджеста, клонируется на каждый вызов вместо поиска провайдера.
+     */
+    private final MessageDigest digestPrototype;
+
+    /**
+     * Создаёт кэш с настройками кэша отклонённых токенов по умолчанию.
+     *
+     * @param enabled       Включён ли кэш.
+     * @param maxSize       Максимальное число записей.
+     * @param meterRegistry Реестр метрик.
+     */
+    public VerifiedTokenCache(boolean enabled, long maxSize, MeterRegistry meterRegistry) {
+        this(enabled, maxSize, 10_000, Duration.ofMinutes(5), meterRegistry);
+    }
+
+    /**
+     * Создаёт кэши и регистрирует метрики попаданий, промахов и вытеснений.
+     *
+     * @param enabled         Включён ли кэш.
+     * @param maxSize         Максимальное число проверенных токенов.
+     * @param rejectedMaxSize Максимальное число отклонённых токенов.
+     * @param rejectedTtl     Время, в течение которого отклонённый токен отклоняется без проверки.
+     * @param meterRegistry   Реестр метрик.
+     */
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-size:50000}") long maxSize,
+                              @Value("${jwt.cache.rejected-max-size:10000}") long rejectedMaxSize,
+                              @Value("${jwt.cache.rejected-ttl:PT5M}") Duration rejectedTtl,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(rejectedMaxSize)
+                .expireAfterWrite(rejectedTtl)
+                .recordStats()
+                .build();
+        this.digestPrototype = sha256();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, rejected, REJECTED_CACHE_NAME);
+    }
+
+    /**
+     * Возвращает проверенный токен из кэша или проверяет его и кладёт в кэш.
+     * Проверка выполняется вне блокировок кэша. Если токен недавно не прошёл проверку,
+     * сразу выбрасывается {@link InvalidTokenException} с исходной причиной отказа.
+     *
+     * @param token    JWT-токен.
+     * @param verifier Функция полной проверки токена.
+     * @return Проверенный токен.
+     * @throws InvalidTokenException Если токен недавно уже был отклонён.
+     */
+    public VerifiedToken getOrVerify(String token, Function<String, VerifiedToken> verifier) {
+        if (!enabled) {
+            return verifier.apply(token);
+        }
+        ByteBuffer key = digest(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+        InvalidTokenException.Reason reason = rejected.getIfPresent(key);
+        if (reason != null) {
+            throw new InvalidTokenException(reason, "JWT was rejected recently");
+        }
+        VerifiedToken verified;
+        try {
+            verified = verifier.apply(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            rejected.put(key, InvalidTokenException.Reason.of(e));
+            throw e;
+        }
+        cache.put(key, verified);
+        return verified;
+    }
+
+    /**
+     * Удаляет все записи из кэша.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        rejected.invalidateAll();
+    }
+
+    private ByteBuffer digest(String token) {
+        try {
+            MessageDigest digest = (MessageDigest) digestPrototype.clone();
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (CloneNotSupportedException e) {
+            return ByteBuffer.wrap(sha256().digest(token.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Время жизни записи равно оставшемуся сроку действия токена.
+     */
+    private static final class TokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            return Math.max(0L, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
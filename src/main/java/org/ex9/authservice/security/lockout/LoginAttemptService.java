@@ -0,0 +1,307 @@
+package org.ex9.authservice.security.lockout;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.ex9.authservice.exception.RateLimitExceededException;
+import org.ex9.authservice.repository.LoginLockoutRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Учёт неудачных входов по логину с прогрессивной задержкой и временной блокировкой.
+ * Неудачи считаются в скользящем окне, приближённом двумя соседними фиксированными окнами:
+ * на логин хранятся два счётчика, начало окна и момент окончания блокировки.
+ * Проверка выполняется в памяти до проверки пароля, поэтому заблокированный вход не стоит ни BCrypt, ни запроса в БД.
+ * При включённом {@code security.login-lockout.persistence} изменённые счётчики пакетно пишутся в БД
+ * и загружаются при старте, так что блокировки переживают перезапуск.
+ * @author Краковцев Артём
+ */
+@Slf4j
+@Service
+public class LoginAttemptService {
+
+    /**
+     * Настройки учёта.
+     */
+    private final LoginLockoutProperties properties;
+
+    /**
+     * Репозиторий сохранённых счётчиков.
+     */
+    private final LoginLockoutRepository repository;
+
+    /**
+     * Счётчики логинов.
+     */
+    private final Cache<String, Attempts> attempts;
+
+    /**
+     * Логины, счётчики которых изменились с последней записи в БД.
+     */
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Источник текущего времени в миллисекундах.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Число входов, отклонённых без проверки пароля.
+     */
+    private final Counter blockedCounter;
+
+    /**
+     * Число блокировок логинов.
+     */
+    private final Counter lockoutCounter;
+
+    /**
+     * Создаёт сервис и регистрирует его метрики.
+     *
+     * @param properties    Настройки учёта.
+     * @param repository    Репозиторий сохранённых счётчиков.
+     * @param meterRegistry Реестр метрик.
+     */
+    @Autowired
+    public LoginAttemptService(LoginLockoutProperties properties, LoginLockoutRepository repository, MeterRegistry meterRegistry) {
+        this(properties, repository, meterRegistry, System::currentTimeMillis);
+    }
+
+    LoginAttemptService(LoginLockoutProperties properties, LoginLockoutRepository repository, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.repository = repository;
+        this.clock = clock;
+        Duration relevance = relevance();
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(properties.maxKeys())
+                .expireAfterAccess(properties.lockoutDuration().compareTo(relevance) > 0 ? properties.lockoutDuration() : relevance)
+                .build();
+        this.blockedCounter = Counter.builder("auth.signin.blocked")
+                .description("Sign-in attempts rejected before the password check")
+                .register(meterRegistry);
+        this.lockoutCounter = Counter.builder("auth.signin.lockouts")
+                .description("Logins locked after too many failed sign-in attempts")
+                .register(meterRegistry);
+        Gauge.builder("auth.signin.tracked-logins", attempts, Cache::estimatedSize)
+                .description("Logins with recent failed sign-in attempts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет, разрешён ли сейчас вход под логином. Не обращается к БД.
+     *
+     * @param login Логин.
+     * @throws RateLimitExceededException Если логин заблокирован или действует задержка после неудачи.
+     */
+    public void checkAllowed(String login) {
+        if (!properties.enabled()) {
+            return;
+        }
+        Attempts state = attempts.getIfPresent(login);
+        long wait = state == null ? 0 : state.blockedFor(clock.getAsLong());
+        if (wait > 0) {
+            blockedCounter.increment();
+            throw new RateLimitExceededException("Too many failed sign-in attempts, retry later",
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(wait + 999)));
+        }
+    }
+
+    /**
+     * Учитывает неудачный вход и при необходимости назначает задержку или блокировку.
+     *
+     * @param login Логин.
+     */
+    public void recordFailure(String login) {
+        if (!properties.enabled()) {
+            return;
+        }
+        Attempts state = attempts.get(login, key -> new Attempts());
+        if (state.fail(clock.getAsLong(), properties.window().toMillis(), properties.lockoutThreshold(), this::blockMillis)) {
+            lockoutCounter.increment();
+        }
+        markDirty(login);
+    }
+
+    /**
+     * Сбрасывает счётчик после успешного входа.
+     *
+     * @param login Логин.
+     */
+    public void recordSuccess(String login) {
+        if (!properties.enabled() || attempts.getIfPresent(login) == null) {
+            return;
+        }
+        attempts.invalidate(login);
+        markDirty(login);
+    }
+
+    /**
+     * Загружает сохранённые счётчики при старте.
+     */
+    @PostConstruct
+    void load() {
+        if (!isPersistent()) {
+            return;
+        }
+        Instant now = Instant.ofEpochMilli(clock.getAsLong());
+        List<LoginLockoutRepository.Row> rows = repository.findActive(now.minus(relevance()), now);
+        rows.forEach(row -> attempts.put(row.login(), Attempts.of(row)));
+        log.info("Loaded {} sign-in lockout counters", rows.size());
+    }
+
+    /**
+     * Пакетно записывает изменённые счётчики в БД и удаляет устаревшие.
+     */
+    @Scheduled(fixedDelayString = "${security.login-lockout.persistence.flush-interval:PT30S}",
+            initialDelayString = "${security.login-lockout.persistence.flush-interval:PT30S}")
+    public void flush() {
+        if (!isPersistent()) {
+            return;
+        }
+        List<LoginLockoutRepository.Row> changed = new ArrayList<>();
+        List<String> reset = new ArrayList<>();
+        for (String login : dirty) {
+            dirty.remove(login);
+            Attempts state = attempts.getIfPresent(login);
+            if (state == null) {
+                reset.add(login);
+            } else {
+                changed.add(state.snapshot(login));
+            }
+        }
+        try {
+            repository.upsertAll(changed);
+            repository.deleteAll(reset);
+            Instant now = Instant.ofEpochMilli(clock.getAsLong());
+            repository.deleteStale(now.minus(relevance()), now);
+        } catch (DataAccessException e) {
+            changed.forEach(row -> dirty.add(row.login()));
+            dirty.addAll(reset);
+            log.warn("Sign-in lockout counters not saved, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Время, в течение которого неудачи влияют на счётчик: текущее и предыдущее окна.
+     */
+    private Duration relevance() {
+        return properties.window().multipliedBy(2);
+    }
+
+    private boolean isPersistent() {
+        return properties.enabled() && properties.persistence().enabled();
+    }
+
+    private void markDirty(String login) {
+        if (isPersistent()) {
+            dirty.add(login);
+        }
+    }
+
+    /**
+     * Длительность запрета входа после неудачи.
+     *
+     * @param failures Число неудач в скользящем окне, включая текущую.
+     * @return Длительность в миллисекундах, 0 — без задержки.
+     */
+    private long blockMillis(long failures) {
+        if (failures >= properties.lockoutThreshold()) {
+            return properties.lockoutDuration().toMillis();
+        }
+        if (failures <= properties.freeAttempts()) {
+            return 0;
+        }
+        long delay = properties.baseDelay().toMillis() << Math.min(failures - properties.freeAttempts() - 1, 30);
+        return Math.min(delay, properties.maxDelay().toMillis());
+    }
+
+    /**
+     * Счётчик неудач логина. Меняется под собственной блокировкой: конкуренция возможна только за один логин.
+     */
+    private static final class Attempts {
+
+        private long windowStart;
+
+        private int previous;
+
+        private int current;
+
+        private long blockedUntil;
+
+        /**
+         * Окончание блокировки по порогу; в отличие от {@link #blockedUntil} не продлевается задержками.
+         */
+        private long lockedUntil;
+
+        private static Attempts of(LoginLockoutRepository.Row row) {
+            Attempts state = new Attempts();
+            state.windowStart = row.windowStart().toEpochMilli();
+            state.previous = row.previousFailures();
+            state.current = row.currentFailures();
+            state.blockedUntil = row.blockedUntil() == null ? 0 : row.blockedUntil().toEpochMilli();
+            state.lockedUntil = state.blockedUntil;
+            return state;
+        }
+
+        private synchronized long blockedFor(long now) {
+            return blockedUntil - now;
+        }
+
+        /**
+         * Учитывает неудачу и продлевает запрет входа по политике.
+         * Неудачи предыдущего окна учитываются с весом, убывающим по мере сдвига скользящего окна,
+         * поэтому при сдвиге окна число неудач может перескочить порог, не совпав с ним.
+         *
+         * @return {@code true}, если эта неудача заблокировала незаблокированный до неё логин.
+         */
+        private synchronized boolean fail(long now, long window, long threshold, LongUnaryOperator policy) {
+            roll(now, window);
+            current++;
+            long failures = previous * (window - (now - windowStart)) / window + current;
+            long block = policy.applyAsLong(failures);
+            blockedUntil = Math.max(blockedUntil, now + block);
+            if (failures < threshold || lockedUntil > now) {
+                return false;
+            }
+            lockedUntil = now + block;
+            return true;
+        }
+
+        private void roll(long now, long window) {
+            if (windowStart == 0) {
+                windowStart = now;
+                return;
+            }
+            long windows = (now - windowStart) / window;
+            if (windows > 0) {
+                previous = windows == 1 ? current : 0;
+                current = 0;
+                windowStart += windows * window;
+            }
+        }
+
+        private synchronized LoginLockoutRepository.Row snapshot(String login) {
+            return new LoginLockoutRepository.Row(login, Instant.ofEpochMilli(windowStart), previous, current,
+                    blockedUntil == 0 ? null : Instant.ofEpochMilli(blockedUntil));
+        }
+
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.ex9.authservice.security.lockout;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки учёта неудачных входов и временной блокировки логина.
+ * После {@code freeAttempts} неудач в окне каждая следующая задерживает вход на удваивающийся интервал
+ * от {@code baseDelay} до {@code maxDelay}, а после {@code lockoutThreshold} неудач логин блокируется на {@code lockoutDuration}.
+ *
+ * @param enabled          Включён ли учёт.
+ * @param maxKeys          Максимальное число отслеживаемых логинов.
+ * @param window           Длина скользящего окна подсчёта неудач.
+ * @param freeAttempts     Число неудач в окне без задержки.
+ * @param baseDelay        Задержка после первой неудачи сверх бесплатных.
+ * @param maxDelay         Максимальная задержка до блокировки.
+ * @param lockoutThreshold Число неудач в окне, после которого логин блокируется.
+ * @param lockoutDuration  Длительность блокировки.
+ * @param persistence      Сохранение счётчиков в БД.
+ * @author Краковцев Артём
+ */
+@ConfigurationProperties(prefix = "security.login-lockout")
+public record LoginLockoutProperties(@DefaultValue("true") boolean enabled,
+                                     @DefaultValue("100000") int maxKeys,
+                                     @DefaultValue("15m") Duration window,
+                                     @DefaultValue("3") int freeAttempts,
+                                     @DefaultValue("1s") Duration baseDelay,
+                                     @DefaultValue("30s") Duration maxDelay,
+                                     @DefaultValue("10") int lockoutThreshold,
+                                     @DefaultValue("15m") Duration lockoutDuration,
+                                     @DefaultValue Persistence persistence) {
+
+    /**
+     * Пакетное сохранение счётчиков, чтобы блокировки переживали перезапуск.
+     *
+     * @param enabled       Включено ли сохранение.
+     * @param flushInterval Интервал записи изменённых счётчиков.
+     */
+    public record Persistence(@DefaultValue("false") boolean enabled, @DefaultValue("30s") Duration flushInterval) {
+
+    }
+
+}
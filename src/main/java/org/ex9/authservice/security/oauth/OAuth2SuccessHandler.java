@@ -1,18 +1,18 @@
 package org.ex9.authservice.security.oauth;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.ex9.authservice.entity.Role;
 import org.ex9.authservice.entity.User;
-import org.ex9.authservice.exception.RoleNotFoundException;
 import org.ex9.authservice.exception.UserAlreadyExistsException;
-import org.ex9.authservice.repository.RoleRepository;
 import org.ex9.authservice.repository.UserRepository;
 import org.ex9.authservice.security.jwt.JwtService;
 import org.ex9.authservice.security.services.UserDetailsImpl;
+import org.ex9.authservice.service.RoleCatalog;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
@@ -32,12 +32,14 @@ import java.util.Set;
 public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
     private final JwtService jwtService;
+    private final UserCache userCache;
     private static final String REDIRECT_URI = "/login/success?token=";
 
     /**
      * Вызывается при успешной аутентификации через OAuth2.
+     * Роли и версия для токена читаются из БД мимо кэша второго уровня, который не знает об изменениях ролей на других экземплярах.
      *
      * @param request        HTTP-запрос
      * @param response       HTTP-ответ
@@ -46,6 +48,7 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
      * @throws ServletException в случае ошибки обработки сервлета
      */
     @Override
+    @Timed(value = "auth.oauth2.success", description = "OAuth2 login completion")
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response, Authentication authentication) throws IOException, ServletException {
 
         OAuth2AuthenticationToken token = (OAuth2AuthenticationToken) authentication;
@@ -57,7 +60,7 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
             throw new UserAlreadyExistsException("User with email " + email + " already exists");
         }
 
-        String jwt = jwtService.generateToken(new UserDetailsImpl(user));
+        String jwt = jwtService.generateToken(UserDetailsImpl.from(userRepository.findAuthRowsByLogin(user.getLogin()), roleCatalog::authority));
         response.sendRedirect(REDIRECT_URI + jwt);
     }
 
@@ -68,17 +71,16 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
      * @return новый пользователь
      */
     private User registerUser(String email) {
-        Role role = roleRepository.findById("USER")
-                .orElseThrow(() -> new RoleNotFoundException("Role not found"));
-
         User newUser = User.builder()
                 .login(email)
                 .email(email)
                 .createDate(LocalDate.now())
-                .roles(Set.of(role))
+                .roles(roleCatalog.references(Set.of("USER")))
                 .build();
 
-        return userRepository.save(newUser);
+        User savedUser = userRepository.save(newUser);
+        userCache.removeUserFromCache(email);
+        return savedUser;
     }
 
 }
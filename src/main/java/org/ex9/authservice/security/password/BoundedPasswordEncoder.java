@@ -0,0 +1,148 @@
+package org.ex9.authservice.security.password;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.ex9.authservice.exception.PasswordHashingUnavailableException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шифровщик паролей, выполняющий хэширование в отдельном ограниченном пуле потоков.
+ * Потоки Tomcat только ждут результат, поэтому волна входов не может занять больше CPU, чем выделено пулу.
+ * При переполнении очереди вызов сразу завершается {@link PasswordHashingUnavailableException}.
+ * @author Краковцев Артём
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    /**
+     * Префикс имён метрик.
+     */
+    private static final String METRIC_PREFIX = "password.hashing";
+
+    /**
+     * Шифровщик, выполняющий само хэширование.
+     */
+    private final PasswordEncoder delegate;
+
+    /**
+     * Пул хэширования с ограниченной очередью.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Значение Retry-After при отказе.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Время ожидания задачи в очереди.
+     */
+    private final Timer waitTimer;
+
+    /**
+     * Время кодирования пароля.
+     */
+    private final Timer encodeTimer;
+
+    /**
+     * Время проверки пароля.
+     */
+    private final Timer matchesTimer;
+
+    /**
+     * Число отклонённых задач.
+     */
+    private final Counter rejectedCounter;
+
+    /**
+     * Создаёт пул и регистрирует метрики.
+     *
+     * @param delegate      Шифровщик, выполняющий хэширование.
+     * @param properties    Настройки пула.
+     * @param meterRegistry Реестр метрик.
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = properties.retryAfterSeconds();
+        int threads = properties.effectiveThreads();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait")
+                .description("Time a password hashing task spends in the queue")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder(METRIC_PREFIX + ".duration")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder(METRIC_PREFIX + ".duration")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.size", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Останавливает пул при закрытии контекста.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingUnavailableException("Password hashing is overloaded, try again later", retryAfterSeconds);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Password hashing was interrupted", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+}
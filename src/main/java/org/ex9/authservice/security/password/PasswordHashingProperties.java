@@ -0,0 +1,42 @@
+package org.ex9.authservice.security.password;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки пула хэширования паролей.
+ * Число потоков ограничивает CPU, который может занять хэширование, очередь — число ожидающих входов и регистраций.
+ *
+ * @param threads           Число потоков хэширования, 0 — по числу процессоров.
+ * @param queueCapacity     Максимальное число задач в очереди.
+ * @param retryAfterSeconds Значение заголовка Retry-After при переполнении очереди.
+ * @param bcryptStrength    Стоимость BCrypt для новых хэшей; хэши с меньшей стоимостью пересчитываются при входе.
+ * @param importShare       Доля потоков пула, которую может одновременно занять импорт пользователей.
+ * @author Краковцев Артём
+ */
+@ConfigurationProperties(prefix = "security.password-hashing")
+public record PasswordHashingProperties(@DefaultValue("0") int threads,
+                                        @DefaultValue("64") int queueCapacity,
+                                        @DefaultValue("1") long retryAfterSeconds,
+                                        @DefaultValue("10") int bcryptStrength,
+                                        @DefaultValue("0.5") double importShare) {
+
+    /**
+     * Возвращает фактическое число потоков.
+     *
+     * @return Число потоков хэширования.
+     */
+    public int effectiveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Возвращает число потоков, которые может одновременно занять импорт, чтобы остальные оставались входам и регистрациям.
+     *
+     * @return Число потоков импорта, не меньше одного.
+     */
+    public int importThreads() {
+        return Math.max(1, (int) (effectiveThreads() * importShare));
+    }
+
+}
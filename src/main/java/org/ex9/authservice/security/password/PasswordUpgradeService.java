@@ -0,0 +1,94 @@
+package org.ex9.authservice.security.password;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ex9.authservice.repository.UserRepository;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновое обновление устаревших хэшей паролей.
+ * После успешного входа хэш с устаревшим алгоритмом или стоимостью пересчитывается вне запроса
+ * и сохраняется, только если пароль в БД за это время не изменился.
+ * Обновление best-effort: при переполнении очереди или ошибке оно повторится при следующем входе.
+ * @author Краковцев Артём
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordUpgradeService {
+
+    /**
+     * Максимальное число ожидающих обновлений.
+     */
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Шифровщик паролей.
+     */
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * Репозиторий пользователей.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Кэш данных пользователей.
+     */
+    private final UserCache userCache;
+
+    /**
+     * Однопоточный исполнитель обновлений, лишние задачи отбрасываются.
+     */
+    private Executor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            new CustomizableThreadFactory("password-upgrade-"),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    /**
+     * Ставит в очередь пересчёт хэша, если он создан с устаревшими параметрами.
+     *
+     * @param userDetails Аутентифицированный пользователь с текущим хэшем.
+     * @param rawPassword Проверенный пароль в открытом виде.
+     */
+    public void upgradeIfNeeded(UserDetails userDetails, String rawPassword) {
+        String currentHash = userDetails.getPassword();
+        if (currentHash == null || rawPassword == null || !passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+        String login = userDetails.getUsername();
+        executor.execute(() -> upgrade(login, rawPassword, currentHash));
+    }
+
+    private void upgrade(String login, String rawPassword, String currentHash) {
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (userRepository.updatePasswordIfUnchanged(login, currentHash, newHash) > 0) {
+                userCache.removeUserFromCache(login);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Password hash upgrade failed for user {}: {}", login, e.getMessage());
+        }
+    }
+
+    /**
+     * Останавливает исполнитель при закрытии контекста.
+     */
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ThreadPoolExecutor threadPool) {
+            threadPool.shutdown();
+        }
+    }
+
+}
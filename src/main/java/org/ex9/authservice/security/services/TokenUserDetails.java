@@ -0,0 +1,85 @@
+package org.ex9.authservice.security.services;
+
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.security.jwt.VerifiedToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Облегчённое представление пользователя, построенное из claims проверенного JWT-токена.
+ * Используется фильтром вместо загрузки пользователя из БД, пока claims считаются свежими.
+ * @author Краковцев Артём
+ */
+@RequiredArgsConstructor
+public class TokenUserDetails implements UserDetails {
+
+    /**
+     * Логин пользователя.
+     */
+    private final String username;
+
+    /**
+     * Роли пользователя из токена.
+     */
+    private final List<GrantedAuthority> authorities;
+
+    /**
+     * Создаёт представление пользователя из проверенного токена.
+     *
+     * @param token Проверенный токен.
+     * @return Данные пользователя.
+     */
+    public static TokenUserDetails from(VerifiedToken token) {
+        return from(token, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * Создаёт представление пользователя из проверенного токена, беря права из справочника.
+     *
+     * @param token       Проверенный токен.
+     * @param authorities Функция, возвращающая право по идентификатору роли.
+     * @return Данные пользователя.
+     */
+    public static TokenUserDetails from(VerifiedToken token, Function<String, GrantedAuthority> authorities) {
+        List<GrantedAuthority> granted = token.roles().stream()
+                .map(authorities)
+                .toList();
+        return new TokenUserDetails(token.subject(), granted);
+    }
+
+    /**
+     * Возвращает роли пользователя из токена.
+     *
+     * @return Коллекция ролей.
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * Пароль в токене не передаётся.
+     *
+     * @return Всегда null.
+     */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    /**
+     * Возвращает логин пользователя.
+     *
+     * @return Логин.
+     */
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+}
@@ -2,24 +2,98 @@ package org.ex9.authservice.security.services;
 
 import lombok.RequiredArgsConstructor;
 import org.ex9.authservice.entity.User;
+import org.ex9.authservice.repository.UserAuthRow;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Реализация UserDetails для представления данных пользователя в Spring Security.
+ * Хранит только идентификатор, логин, хэш пароля и права, без ссылки на сущность.
  * @author Краковцев Артём
  */
 @RequiredArgsConstructor
 public class UserDetailsImpl implements UserDetails {
 
     /**
-     * Объект пользователя.
+     * Идентификатор пользователя.
      */
-    private final User user;
+    private final UUID id;
+
+    /**
+     * Логин пользователя.
+     */
+    private final String username;
+
+    /**
+     * Хэш пароля.
+     */
+    private final String password;
+
+    /**
+     * Права пользователя.
+     */
+    private final Set<GrantedAuthority> authorities;
+
+    /**
+     * Версия токенов пользователя, записывается в выдаваемые токены.
+     */
+    private final long tokenVersion;
+
+    /**
+     * Создаёт представление пользователя из сущности.
+     *
+     * @param user Пользователь.
+     */
+    public UserDetailsImpl(User user) {
+        this(user.getId(), user.getLogin(), user.getPassword(), user.getRoles().stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.getId()))
+                .collect(Collectors.toSet()), user.getTokenVersion());
+    }
+
+    /**
+     * Собирает пользователя из строк проекции, по одной на роль.
+     *
+     * @param rows        Непустой список строк одного пользователя.
+     * @param authorities Функция, возвращающая право по идентификатору роли.
+     * @return Данные пользователя.
+     */
+    public static UserDetailsImpl from(List<UserAuthRow> rows, Function<String, GrantedAuthority> authorities) {
+        UserAuthRow first = rows.get(0);
+        Set<GrantedAuthority> granted = new HashSet<>();
+        for (UserAuthRow row : rows) {
+            if (row.roleId() != null) {
+                granted.add(authorities.apply(row.roleId()));
+            }
+        }
+        return new UserDetailsImpl(first.id(), first.login(), first.password(), granted, first.tokenVersion());
+    }
+
+    /**
+     * Возвращает идентификатор пользователя.
+     *
+     * @return Идентификатор.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Возвращает версию токенов пользователя.
+     *
+     * @return Версия токенов.
+     */
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
 
     /**
      * Возвращает список ролей пользователя в виде объектов GrantedAuthority.
@@ -28,9 +102,7 @@ public class UserDetailsImpl implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getId()))
-                .collect(Collectors.toSet());
+        return authorities;
     }
 
     /**
@@ -40,7 +112,7 @@ public class UserDetailsImpl implements UserDetails {
      */
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     /**
@@ -50,7 +122,7 @@ public class UserDetailsImpl implements UserDetails {
      */
     @Override
     public String getUsername() {
-        return user.getLogin();
+        return username;
     }
 
 }
@@ -1,13 +1,18 @@
 package org.ex9.authservice.security.services;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.ex9.authservice.entity.User;
+import org.ex9.authservice.repository.UserAuthRow;
 import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.service.RoleCatalog;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Сервис для загрузки данных пользователя по логину для Spring Security.
  * @author Краковцев Артём
@@ -21,19 +26,39 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     private final UserRepository userRepository;
 
+    /**
+     * Кэш уже загруженных пользователей.
+     */
+    private final UserCache userCache;
+
+    /**
+     * Справочник ролей.
+     */
+    private final RoleCatalog roleCatalog;
+
     /**
      * Загружает данные пользователя по логину.
+     * Сначала ищет пользователя в кэше, при промахе загружает из БД и кладёт в кэш.
+     * Из БД читаются только идентификатор, логин, хэш пароля и идентификаторы ролей, сущности не создаются.
      *
      * @param username Логин пользователя.
      * @return Объект UserDetails с данными пользователя.
      * @throws UsernameNotFoundException Если пользователь не найден.
      */
     @Override
+    @Timed(value = "auth.user.lookup", description = "UserDetails lookup, including user cache hits")
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByLogin(username)
-                .orElseThrow(() -> new UsernameNotFoundException(username));
-        user.getRoles();
-        return new UserDetailsImpl(user);
+        UserDetails cached = userCache.getUserFromCache(username);
+        if (cached != null) {
+            return cached;
+        }
+        List<UserAuthRow> rows = userRepository.findAuthRowsByLogin(username);
+        if (rows.isEmpty()) {
+            throw new UsernameNotFoundException(username);
+        }
+        UserDetails userDetails = UserDetailsImpl.from(rows, roleCatalog::authority);
+        userCache.putUserInCache(userDetails);
+        return userDetails;
     }
 
 }
@@ -1,24 +1,33 @@
 package org.ex9.authservice.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.dto.RefreshRequestDto;
 import org.ex9.authservice.dto.SignInRequestDto;
 import org.ex9.authservice.dto.SignUpRequestDto;
-import org.ex9.authservice.entity.Role;
+import org.ex9.authservice.dto.TokenResponseDto;
 import org.ex9.authservice.entity.User;
+import org.ex9.authservice.exception.InvalidRefreshTokenException;
 import org.ex9.authservice.exception.RoleNotFoundException;
 import org.ex9.authservice.exception.UserAlreadyExistsException;
-import org.ex9.authservice.repository.RoleRepository;
 import org.ex9.authservice.repository.UserRepository;
 import org.ex9.authservice.security.jwt.JwtService;
+import org.ex9.authservice.security.lockout.LoginAttemptService;
+import org.ex9.authservice.security.password.PasswordUpgradeService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -30,6 +39,16 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class AuthService {
 
+    /**
+     * Роль, назначаемая при регистрации.
+     */
+    private static final String DEFAULT_ROLE = "USER";
+
+    /**
+     * Внешний ключ user_roles на таблицу ролей.
+     */
+    private static final String ROLE_FOREIGN_KEY = "fk_user_roles_role";
+
     /**
      * Менеджер аутентификации.
      */
@@ -43,7 +62,7 @@ public class AuthService {
     /**
      * Репозиторий ролей.
      */
-    private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
 
     /**
      * Шифровщик паролей.
@@ -56,45 +75,114 @@ public class AuthService {
     private final JwtService jwtService;
 
     /**
-     * Регистрирует нового пользователя в системе.
+     * Кэш данных пользователей.
+     */
+    private final UserCache userCache;
+
+    /**
+     * Сервис refresh-токенов.
+     */
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Сервис фонового обновления хэшей паролей.
+     */
+    private final PasswordUpgradeService passwordUpgradeService;
+
+    /**
+     * Учёт неудачных входов.
+     */
+    private final LoginAttemptService loginAttemptService;
+
+    /**
+     * Регистрирует нового пользователя в системе одной вставкой.
+     * Занятость логина и email не проверяется заранее: за неё отвечают ограничения уникальности таблицы users.
      *
      * @param request DTO с данными для регистрации.
      * @throws UserAlreadyExistsException Если логин или email уже заняты.
      * @throws RoleNotFoundException      Если роль не найдена.
      */
+    @Timed(value = "auth.signup", description = "User registration")
     public void signUp(SignUpRequestDto request) {
-        if (userRepository.existsByLogin(request.getLogin())) {
-            throw new UserAlreadyExistsException("User with login " + request.getLogin() + " already exists");
-        }
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new UserAlreadyExistsException("User with email " + request.getEmail() + " already exists");
-        }
-
-        Role role = roleRepository.findById("USER")
-                .orElseThrow(() -> new RoleNotFoundException("Role not found"));
-
         User user = User.builder()
                 .login(request.getLogin())
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword()))
                 .createDate(LocalDate.now())
-                .roles(Set.of(role))
+                .roles(roleCatalog.references(Set.of(DEFAULT_ROLE)))
                 .build();
 
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateSignUpViolation(e, request);
+        }
+        userCache.removeUserFromCache(user.getLogin());
     }
 
     /**
-     * Аутентифицирует пользователя и возвращает JWT-токен.
+     * Аутентифицирует пользователя и возвращает access- и refresh-токены.
+     * Устаревший хэш пароля пересчитывается в фоне и не задерживает ответ.
+     * Неудачные попытки учитываются в {@link LoginAttemptService}, успешный вход сбрасывает счётчик.
      *
      * @param request DTO с логином и паролем.
-     * @return WT-токен.
+     * @return Пара токенов.
      */
-    public String signIn(SignInRequestDto request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getLogin(), request.getPassword()));
+    @Timed(value = "auth.signin", description = "Password sign-in")
+    public TokenResponseDto signIn(SignInRequestDto request) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getLogin(), request.getPassword()));
+        } catch (BadCredentialsException e) {
+            loginAttemptService.recordFailure(request.getLogin());
+            throw e;
+        }
+        loginAttemptService.recordSuccess(request.getLogin());
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return jwtService.generateToken(userDetails);
+        passwordUpgradeService.upgradeIfNeeded(userDetails, request.getPassword());
+        return createTokens(userDetails, refreshTokenService.issue(userDetails));
+    }
+
+    /**
+     * Выдаёт новую пару токенов по refresh-токену без проверки пароля.
+     *
+     * @param request DTO с refresh-токеном.
+     * @return Новая пара токенов.
+     * @throws InvalidRefreshTokenException Если refresh-токен недействителен.
+     */
+    @Timed(value = "auth.refresh", description = "Refresh token exchange")
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public TokenResponseDto refresh(RefreshRequestDto request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        return createTokens(rotation.userDetails(), rotation.refreshToken());
+    }
+
+    /**
+     * Определяет по имени нарушенного ограничения, какое поле регистрации конфликтует.
+     *
+     * @param e       Исключение вставки.
+     * @param request DTO с данными для регистрации.
+     * @return Исключение для клиента либо исходное, если ограничение не относится к регистрации.
+     */
+    private RuntimeException translateSignUpViolation(DataIntegrityViolationException e, SignUpRequestDto request) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName().toLowerCase(Locale.ROOT)
+                : "";
+        if (constraint.contains(User.LOGIN_CONSTRAINT)) {
+            return new UserAlreadyExistsException("User with login " + request.getLogin() + " already exists");
+        }
+        if (constraint.contains(User.EMAIL_CONSTRAINT)) {
+            return new UserAlreadyExistsException("User with email " + request.getEmail() + " already exists");
+        }
+        if (constraint.contains(ROLE_FOREIGN_KEY)) {
+            return new RoleNotFoundException("Role not found");
+        }
+        return e;
+    }
+
+    private TokenResponseDto createTokens(UserDetails userDetails, String refreshToken) {
+        return new TokenResponseDto(jwtService.generateToken(userDetails), refreshToken, jwtService.getExpiresIn());
     }
 
 }
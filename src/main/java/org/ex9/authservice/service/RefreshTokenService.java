@@ -0,0 +1,165 @@
+package org.ex9.authservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.entity.RefreshToken;
+import org.ex9.authservice.entity.User;
+import org.ex9.authservice.exception.InvalidRefreshTokenException;
+import org.ex9.authservice.repository.RefreshTokenRepository;
+import org.ex9.authservice.repository.UserAuthRow;
+import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.security.services.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Сервис выдачи и ротации refresh-токенов.
+ * В БД хранится только SHA-256 токена. Каждый токен одноразовый: при обновлении выдаётся новый токен того же семейства,
+ * а повторное предъявление уже использованного токена отзывает всё семейство.
+ * @author Краковцев Артём
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+public class RefreshTokenService {
+
+    /**
+     * Длина случайной части токена в байтах.
+     */
+    private static final int TOKEN_BYTES = 32;
+
+    /**
+     * Источник случайных токенов.
+     */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Репозиторий refresh-токенов.
+     */
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    /**
+     * Репозиторий пользователей.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Справочник ролей.
+     */
+    private final RoleCatalog roleCatalog;
+
+    /**
+     * Время действия refresh-токена в миллисекундах.
+     */
+    @Value("${jwt.refresh.expiration}")
+    private long expiration;
+
+    /**
+     * Выдаёт новый refresh-токен, открывающий новое семейство.
+     *
+     * @param userDetails Аутентифицированный пользователь.
+     * @return Refresh-токен в открытом виде.
+     */
+    public String issue(UserDetails userDetails) {
+        User user = userDetails instanceof UserDetailsImpl impl
+                ? userRepository.getReferenceById(impl.getId())
+                : userRepository.findByLogin(userDetails.getUsername())
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        return create(user, UUID.randomUUID());
+    }
+
+    /**
+     * Обменивает refresh-токен на новый того же семейства.
+     * Токен помечается использованным условным UPDATE, поэтому из двух одновременных обновлений успешным будет только одно.
+     * Роли и версия токенов читаются из БД, а не из кэша второго уровня: изменение ролей на другом экземпляре
+     * сбрасывает кэш только там, и новый access-токен мог бы получить новую версию вместе со старыми ролями.
+     *
+     * @param rawToken Refresh-токен в открытом виде.
+     * @return Новый refresh-токен и пользователь, которому он выдан.
+     * @throws InvalidRefreshTokenException Если токен неизвестен, истёк, отозван или уже использован.
+     */
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        Instant now = Instant.now();
+        if (token.isRevoked() || token.getUsedAt() != null
+                || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token reuse detected");
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        User user = token.getUser();
+        List<UserAuthRow> rows = userRepository.findAuthRowsByLogin(user.getLogin());
+        if (rows.isEmpty()) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        return new Rotation(UserDetailsImpl.from(rows, roleCatalog::authority), create(user, token.getFamilyId()));
+    }
+
+    /**
+     * Отзывает семейство, к которому принадлежит refresh-токен. Неизвестный токен игнорируется.
+     *
+     * @param rawToken Refresh-токен в открытом виде.
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Отзывает все refresh-токены пользователя.
+     *
+     * @param user Пользователь.
+     */
+    public void revokeAll(User user) {
+        refreshTokenRepository.revokeAllByUserId(user.getId());
+    }
+
+    private String create(User user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant now = Instant.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .createdAt(now)
+                .expiresAt(now.plusMillis(expiration))
+                .build());
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Результат ротации refresh-токена.
+     *
+     * @param userDetails  Владелец токена.
+     * @param refreshToken Новый refresh-токен в открытом виде.
+     */
+    public record Rotation(UserDetails userDetails, String refreshToken) {
+    }
+
+}
@@ -0,0 +1,177 @@
+package org.ex9.authservice.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ex9.authservice.entity.Role;
+import org.ex9.authservice.exception.RoleNotFoundException;
+import org.ex9.authservice.repository.RoleRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Справочник ролей в памяти.
+ * Таблица roles загружается целиком при старте и по расписанию {@code roles.catalog.refresh-interval};
+ * каждая загрузка публикует новый неизменяемый снимок, поэтому чтение не требует блокировок и обращений к БД.
+ * Роли и их {@link GrantedAuthority} хранятся в единственном экземпляре на идентификатор.
+ * @author Краковцев Артём
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleCatalog {
+
+    /**
+     * Репозиторий ролей.
+     */
+    private final RoleRepository roleRepository;
+
+    /**
+     * Текущий снимок справочника.
+     */
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), "\"empty\"");
+
+    /**
+     * Неизменяемый снимок справочника.
+     *
+     * @param roles       Роли по идентификатору в порядке идентификаторов.
+     * @param authorities Права по идентификатору роли.
+     * @param eTag        ETag содержимого справочника.
+     */
+    private record Snapshot(Map<String, Role> roles, Map<String, GrantedAuthority> authorities, String eTag) {
+    }
+
+    /**
+     * Перечитывает таблицу ролей. Если содержимое не изменилось, прежние экземпляры сохраняются.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${roles.catalog.refresh-interval:PT5M}", initialDelayString = "${roles.catalog.refresh-interval:PT5M}")
+    public void refresh() {
+        List<Role> loaded = roleRepository.findAll(Sort.by("id"));
+        StringBuilder content = new StringBuilder();
+        for (Role role : loaded) {
+            content.append(role.getId()).append('\0')
+                    .append(role.getName()).append('\0')
+                    .append(role.getDescription()).append('\n');
+        }
+        String eTag = "\"" + sha256Hex(content.toString()) + "\"";
+        if (eTag.equals(snapshot.eTag())) {
+            return;
+        }
+        Map<String, Role> roles = new LinkedHashMap<>();
+        Map<String, GrantedAuthority> authorities = new LinkedHashMap<>();
+        for (Role role : loaded) {
+            roles.put(role.getId(), role);
+            authorities.put(role.getId(), new SimpleGrantedAuthority(role.getId()));
+        }
+        snapshot = new Snapshot(Collections.unmodifiableMap(roles), Map.copyOf(authorities), eTag);
+        log.info("Role catalog loaded: {} roles", roles.size());
+    }
+
+    /**
+     * Возвращает все роли в порядке идентификаторов.
+     *
+     * @return Неизменяемая коллекция ролей.
+     */
+    public Collection<Role> getRoles() {
+        return snapshot.roles().values();
+    }
+
+    /**
+     * Возвращает ETag текущего содержимого справочника.
+     *
+     * @return Значение ETag в кавычках.
+     */
+    public String getETag() {
+        return snapshot.eTag();
+    }
+
+    /**
+     * Возвращает роль из справочника.
+     *
+     * @param roleId Идентификатор роли.
+     * @return Роль из справочника или роль только с идентификатором, если в справочнике её ещё нет.
+     */
+    public Role role(String roleId) {
+        Role role = snapshot.roles().get(roleId);
+        return role != null ? role : Role.builder().id(roleId).build();
+    }
+
+    /**
+     * Проверяет, существует ли роль.
+     *
+     * @param roleId Идентификатор роли.
+     * @return true, если роль есть в справочнике.
+     */
+    public boolean contains(String roleId) {
+        return snapshot.roles().containsKey(roleId);
+    }
+
+    /**
+     * Проверяет, что все роли существуют.
+     *
+     * @param roleIds Идентификаторы ролей.
+     * @throws RoleNotFoundException Если одной из ролей нет в справочнике.
+     */
+    public void requireAll(Collection<String> roleIds) {
+        Map<String, Role> roles = snapshot.roles();
+        for (String roleId : roleIds) {
+            if (!roles.containsKey(roleId)) {
+                throw new RoleNotFoundException("Role with id " + roleId + " not found");
+            }
+        }
+    }
+
+    /**
+     * Возвращает ссылки на роли для записи в связи сущностей.
+     * Существование проверяется по справочнику, а ссылки — прокси {@code getReferenceById}, поэтому запросов к БД нет.
+     *
+     * @param roleIds Идентификаторы ролей.
+     * @return Ссылки на роли.
+     * @throws RoleNotFoundException Если одной из ролей нет в справочнике.
+     */
+    public Set<Role> references(Collection<String> roleIds) {
+        requireAll(roleIds);
+        Set<Role> references = new HashSet<>();
+        for (String roleId : roleIds) {
+            references.add(roleRepository.getReferenceById(roleId));
+        }
+        return references;
+    }
+
+    /**
+     * Возвращает общий экземпляр права для роли.
+     *
+     * @param roleId Идентификатор роли.
+     * @return Право из справочника или новое, если роли в справочнике нет.
+     */
+    public GrantedAuthority authority(String roleId) {
+        GrantedAuthority authority = snapshot.authorities().get(roleId);
+        return authority != null ? authority : new SimpleGrantedAuthority(roleId);
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.ex9.authservice.service;
+
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.dto.IntrospectionResponseDto;
+import org.ex9.authservice.security.jwt.JwtService;
+import org.ex9.authservice.security.jwt.TokenDenylist;
+import org.ex9.authservice.security.jwt.VerifiedToken;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Сервис проверки токенов для внешних потребителей (шлюз, другие сервисы).
+ * @author Краковцев Артём
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenIntrospectionService {
+
+    /**
+     * Сервис для работы с JWT.
+     */
+    private final JwtService jwtService;
+
+    /**
+     * Список отозванных токенов.
+     */
+    private final TokenDenylist tokenDenylist;
+
+    /**
+     * Версии токенов пользователей.
+     */
+    private final TokenVersionService tokenVersionService;
+
+    /**
+     * Проверяет один токен.
+     *
+     * @param token JWT-токен.
+     * @return Результат проверки, для невалидного, отозванного или устаревшего токена active = false.
+     */
+    public IntrospectionResponseDto introspect(String token) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return IntrospectionResponseDto.inactive();
+        }
+        if (tokenDenylist.isRevoked(verified) || !tokenVersionService.isCurrent(verified)) {
+            return IntrospectionResponseDto.inactive();
+        }
+        return IntrospectionResponseDto.builder()
+                .active(true)
+                .sub(verified.subject())
+                .roles(verified.roles())
+                .iat(verified.issuedAt() == null ? null : verified.issuedAt().getEpochSecond())
+                .exp(verified.expiresAt().getEpochSecond())
+                .build();
+    }
+
+    /**
+     * Проверяет пакет токенов последовательно в потоке запроса, порядок результатов совпадает с порядком токенов.
+     * Параллельная проверка не используется: проверка версии может обратиться к БД
+     * и заняла бы общий ForkJoinPool, а с прогретыми кэшами последовательная проверка и так дешёвая.
+     *
+     * @param tokens JWT-токены.
+     * @return Результаты проверки.
+     */
+    public List<IntrospectionResponseDto> introspectBatch(List<String> tokens) {
+        return tokens.stream().map(this::introspect).toList();
+    }
+
+}
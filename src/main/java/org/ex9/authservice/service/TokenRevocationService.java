@@ -0,0 +1,167 @@
+package org.ex9.authservice.service;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ex9.authservice.entity.RevokedToken;
+import org.ex9.authservice.entity.User;
+import org.ex9.authservice.exception.UserNotFoundException;
+import org.ex9.authservice.repository.RevokedTokenRepository;
+import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.repository.UserRoleBulkRepository;
+import org.ex9.authservice.security.jwt.JwtService;
+import org.ex9.authservice.security.jwt.TokenDenylist;
+import org.ex9.authservice.security.jwt.VerifiedToken;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Сервис отзыва access-токенов.
+ * Отозванные jti сохраняются в БД вместе со сроком действия токена и держатся в {@link TokenDenylist},
+ * поэтому проверка при каждом запросе выполняется в памяти. Отзывы, сделанные другими экземплярами сервиса,
+ * подгружаются по расписанию {@code jwt.revocation.sync-interval}.
+ * Все токены пользователя сразу отзываются увеличением его версии токенов, см. {@link TokenVersionService}.
+ * @author Краковцев Артём
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    /**
+     * Перекрытие окон синхронизации на случай расхождения часов и поздно закоммиченных отзывов.
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    /**
+     * Репозиторий отозванных токенов.
+     */
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    /**
+     * Список отозванных токенов в памяти.
+     */
+    private final TokenDenylist denylist;
+
+    /**
+     * Сервис для работы с JWT.
+     */
+    private final JwtService jwtService;
+
+    /**
+     * Сервис refresh-токенов.
+     */
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Репозиторий пользователей.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Репозиторий для атомарного увеличения версии токенов.
+     */
+    private final UserRoleBulkRepository userRoleBulkRepository;
+
+    /**
+     * Версии токенов пользователей.
+     */
+    private final TokenVersionService tokenVersionService;
+
+    /**
+     * Кэш данных пользователей.
+     */
+    private final UserCache userCache;
+
+    /**
+     * Момент начала последней успешной синхронизации.
+     */
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    /**
+     * Завершает сеанс: отзывает access-токен и, если передан, всё семейство refresh-токена.
+     *
+     * @param accessToken  Access-токен текущего запроса.
+     * @param refreshToken Refresh-токен сеанса или null.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        revoke(accessToken);
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
+    /**
+     * Отзывает access-токен до истечения его срока действия.
+     *
+     * @param token JWT-токен.
+     * @return true, если токен отозван; false, если он невалиден, уже истёк или выпущен без jti.
+     */
+    public boolean revoke(String token) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+        if (verified.id() == null) {
+            return false;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(verified.id())
+                .subject(verified.subject())
+                .expiresAt(verified.expiresAt())
+                .revokedAt(Instant.now())
+                .build());
+        denylist.add(verified.id(), verified.expiresAt());
+        return true;
+    }
+
+    /**
+     * Завершает все сеансы пользователя: увеличивает версию токенов, из-за чего все выданные access-токены
+     * перестают приниматься, и отзывает все refresh-токены.
+     *
+     * @param login Логин пользователя.
+     * @throws UserNotFoundException Если пользователь не найден.
+     */
+    @Transactional
+    public void revokeAllSessions(String login) {
+        User user = userRepository.findByLogin(login)
+                .orElseThrow(() -> new UserNotFoundException("User with id " + login + " not found"));
+        userRoleBulkRepository.incrementTokenVersion(user);
+        refreshTokenService.revokeAll(user);
+        userCache.removeUserFromCache(login);
+        tokenVersionService.evict(List.of(login));
+    }
+
+    /**
+     * Подгружает токены, отозванные с момента прошлой синхронизации. При старте загружаются все неистёкшие.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:PT5S}", initialDelayString = "${jwt.revocation.sync-interval:PT5S}")
+    public void sync() {
+        Instant now = Instant.now();
+        List<RevokedToken> revoked = revokedTokenRepository.findActiveRevokedSince(lastSync.minus(SYNC_OVERLAP), now);
+        revoked.forEach(token -> denylist.add(token.getJti(), token.getExpiresAt()));
+        lastSync = now;
+    }
+
+    /**
+     * Удаляет истёкшие токены из БД и из памяти: истёкший токен отклоняется и без списка отзыва.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT10M}", initialDelayString = "${jwt.revocation.purge-interval:PT10M}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        int evicted = denylist.purgeExpired(now);
+        log.debug("Expired revoked tokens purged: {} rows, {} in memory", deleted, evicted);
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.ex9.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.security.jwt.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Кэш версий токенов пользователей.
+ * Версия записывается в токен при выдаче и увеличивается при изменении ролей или завершении всех сеансов,
+ * после чего все ранее выданные токены пользователя перестают приниматься.
+ * Версии кэшируются на {@code jwt.token-version.cache-ttl}: изменения на других экземплярах сервиса
+ * вступают в силу не позже чем через это время, на этом экземпляре — сразу.
+ * @author Краковцев Артём
+ */
+@Service
+public class TokenVersionService {
+
+    /**
+     * Версия для несуществующего пользователя, не совпадает ни с одной выданной.
+     */
+    private static final long NO_USER = -1;
+
+    /**
+     * Имя кэша в метриках.
+     */
+    private static final String CACHE_NAME = "jwt.token-versions";
+
+    /**
+     * Кэш: логин -> текущая версия токенов.
+     */
+    private final LoadingCache<String, Long> versions;
+
+    /**
+     * Создаёт кэш и регистрирует его метрики.
+     *
+     * @param userRepository Репозиторий пользователей.
+     * @param maxSize        Максимальное число записей.
+     * @param ttl            Время жизни записи.
+     * @param meterRegistry  Реестр метрик.
+     */
+    public TokenVersionService(UserRepository userRepository,
+                               @Value("${jwt.token-version.cache-max-size:100000}") long maxSize,
+                               @Value("${jwt.token-version.cache-ttl:PT10S}") Duration ttl,
+                               MeterRegistry meterRegistry) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(login -> userRepository.findTokenVersionByLogin(login).orElse(NO_USER));
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, CACHE_NAME);
+    }
+
+    /**
+     * Проверяет, что токен выпущен с текущей версией пользователя. Токены без версии не проверяются.
+     *
+     * @param token Проверенный токен.
+     * @return false, если версия пользователя с тех пор увеличилась или пользователь удалён.
+     */
+    public boolean isCurrent(VerifiedToken token) {
+        return token.version() == null || token.version().equals(versions.get(token.subject()));
+    }
+
+    /**
+     * Сбрасывает закэшированные версии сразу и ещё раз после завершения транзакции,
+     * чтобы параллельный запрос до коммита не вернул в кэш старую версию.
+     *
+     * @param logins Логины пользователей, чья версия изменилась.
+     */
+    public void evict(Collection<String> logins) {
+        List<String> keys = List.copyOf(logins);
+        versions.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versions.invalidateAll(keys);
+                }
+            });
+        }
+    }
+
+}
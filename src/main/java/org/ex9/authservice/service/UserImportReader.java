@@ -0,0 +1,214 @@
+package org.ex9.authservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ex9.authservice.dto.UserImportRowDto;
+import org.ex9.authservice.exception.InvalidImportFormatException;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Построчное чтение потока импорта пользователей.
+ * В памяти держится только текущая строка, поэтому размер загрузки не ограничен.
+ * @author Краковцев Артём
+ */
+public class UserImportReader {
+
+    /**
+     * Формат потока импорта.
+     */
+    public enum Format {
+
+        /**
+         * Один JSON-объект {@link UserImportRowDto} на строку.
+         */
+        NDJSON,
+
+        /**
+         * CSV с заголовком: login, email, password или passwordHash, необязательный roles через «;».
+         */
+        CSV;
+
+        /**
+         * Media type CSV-потока.
+         */
+        public static final String TEXT_CSV_VALUE = "text/csv";
+
+        /**
+         * Определяет формат по типу содержимого запроса.
+         *
+         * @param mediaType Тип содержимого.
+         * @return Формат потока.
+         */
+        public static Format of(MediaType mediaType) {
+            return MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType) ? NDJSON : CSV;
+        }
+
+    }
+
+    /**
+     * Прочитанная строка потока.
+     *
+     * @param line  Номер строки, начиная с 1.
+     * @param data  Данные строки или null, если строку не удалось разобрать.
+     * @param error Причина, по которой строку не удалось разобрать.
+     */
+    public record Row(long line, UserImportRowDto data, String error) {
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of("login", "email", "password", "passwordhash", "roles");
+
+    private final BufferedReader reader;
+
+    private final Format format;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Индексы колонок CSV по имени в нижнем регистре.
+     */
+    private Map<String, Integer> columns;
+
+    private long lineNumber;
+
+    /**
+     * Создаёт читатель и для CSV разбирает заголовок.
+     *
+     * @param reader       Входной поток.
+     * @param format       Формат потока.
+     * @param objectMapper Парсер JSON.
+     * @throws IOException                  Если поток не читается.
+     * @throws InvalidImportFormatException Если заголовок CSV некорректен.
+     */
+    public UserImportReader(Reader reader, Format format, ObjectMapper objectMapper) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == Format.CSV) {
+            readHeader();
+        }
+    }
+
+    /**
+     * Читает следующую непустую строку.
+     *
+     * @return Строка потока или null в конце потока.
+     * @throws IOException Если поток не читается.
+     */
+    public Row next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+        return format == Format.NDJSON ? parseJson(line) : parseCsv(line);
+    }
+
+    private Row parseJson(String line) {
+        try {
+            return new Row(lineNumber, objectMapper.readValue(line, UserImportRowDto.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, null, "malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new InvalidImportFormatException("CSV header is missing");
+        }
+        lineNumber++;
+        columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new InvalidImportFormatException("Unknown CSV column " + names.get(i));
+            }
+            columns.put(name, i);
+        }
+        if (!columns.containsKey("login") || !columns.containsKey("email")
+                || !(columns.containsKey("password") || columns.containsKey("passwordhash"))) {
+            throw new InvalidImportFormatException("CSV header must contain login, email and password or passwordHash");
+        }
+    }
+
+    private Row parseCsv(String line) {
+        List<String> values;
+        try {
+            values = splitCsv(line);
+        } catch (IllegalArgumentException e) {
+            return new Row(lineNumber, null, e.getMessage());
+        }
+        if (values.size() != columns.size()) {
+            return new Row(lineNumber, null, "expected " + columns.size() + " columns, got " + values.size());
+        }
+        String roles = column(values, "roles");
+        return new Row(lineNumber, new UserImportRowDto(
+                column(values, "login"),
+                column(values, "email"),
+                column(values, "password"),
+                column(values, "passwordhash"),
+                roles == null ? null : Arrays.stream(roles.split(";")).map(String::trim).filter(r -> !r.isEmpty()).toList()
+        ), null);
+    }
+
+    private String column(List<String> values, String name) {
+        Integer index = columns.get(name);
+        if (index == null) {
+            return null;
+        }
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Разбивает строку CSV на поля с учётом кавычек; кавычка внутри поля экранируется удвоением.
+     *
+     * @param line Строка CSV.
+     * @return Значения полей.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"' && value.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+}
@@ -0,0 +1,321 @@
+package org.ex9.authservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ex9.authservice.dto.UserImportEventDto;
+import org.ex9.authservice.dto.UserImportRowDto;
+import org.ex9.authservice.exception.PasswordHashingUnavailableException;
+import org.ex9.authservice.repository.UserImportRepository;
+import org.ex9.authservice.security.password.PasswordHashingProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Массовый импорт пользователей из потока NDJSON или CSV.
+ * Поток читается пакетами по {@code user-import.chunk-size} строк: пакет проверяется одним запросом на занятые логины и email,
+ * пароли хэшируются параллельно, пользователи и роли пишутся пакетными вставками JDBC в отдельной транзакции на пакет.
+ * Импорт занимает не больше доли {@code security.password-hashing.import-share} общего пула хэширования,
+ * остальные потоки пула остаются входам и регистрациям.
+ * Ошибки строк и прогресс после каждого пакета передаются слушателю, поэтому память не зависит от размера загрузки.
+ * @author Краковцев Артём
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    /**
+     * Роль, назначаемая строкам без ролей.
+     */
+    private static final String DEFAULT_ROLE = "USER";
+
+    /**
+     * Префикс хэшей BCrypt в формате DelegatingPasswordEncoder.
+     */
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+
+    /**
+     * Формат хэша BCrypt: версия, стоимость, 22 символа соли и 31 символ хэша.
+     */
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[abxy]?\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+
+    /**
+     * Репозиторий пакетной записи пользователей.
+     */
+    private final UserImportRepository userImportRepository;
+
+    /**
+     * Репозиторий ролей.
+     */
+    private final RoleCatalog roleCatalog;
+
+    /**
+     * Шифровщик паролей.
+     */
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * Настройки пула хэширования, задают параллелизм импорта: {@link PasswordHashingProperties#importThreads()}.
+     */
+    private final PasswordHashingProperties hashingProperties;
+
+    /**
+     * Транзакции пакетов.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Парсер NDJSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Валидатор строк.
+     */
+    private final Validator validator;
+
+    /**
+     * Число строк в одном пакете и одной транзакции.
+     */
+    @Value("${user-import.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Импортирует пользователей из потока.
+     *
+     * @param input  Входной поток.
+     * @param format Формат потока.
+     * @param events Слушатель событий: ошибки строк, прогресс после каждого пакета и итог.
+     * @return Итоговое событие.
+     * @throws IOException Если поток не читается.
+     */
+    @Timed(value = "auth.user-import", description = "Bulk user import")
+    public UserImportEventDto importUsers(Reader input, UserImportReader.Format format, Consumer<UserImportEventDto> events)
+            throws IOException {
+        UserImportReader reader = new UserImportReader(input, format, objectMapper);
+        Progress progress = new Progress(events);
+        try (ExecutorService hashers = Executors.newFixedThreadPool(hashingProperties.importThreads(),
+                new CustomizableThreadFactory("user-import-"))) {
+            List<UserImportReader.Row> chunk = new ArrayList<>(chunkSize);
+            for (UserImportReader.Row row = reader.next(); row != null; row = reader.next()) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, hashers, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, hashers, progress);
+            }
+        }
+        UserImportEventDto summary = progress.event("summary");
+        events.accept(summary);
+        log.info("User import finished: {} rows, {} imported, {} failed", summary.getProcessed(), summary.getImported(), summary.getFailed());
+        return summary;
+    }
+
+    /**
+     * Строка, прошедшая проверки и ожидающая хэш пароля.
+     */
+    private record Candidate(long line, UserImportRowDto data, Set<String> roles, Future<String> passwordHash) {
+    }
+
+    private void importChunk(List<UserImportReader.Row> rows, ExecutorService hashers, Progress progress) {
+        List<UserImportReader.Row> valid = new ArrayList<>(rows.size());
+        Set<String> logins = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (UserImportReader.Row row : rows) {
+            String error = row.error() != null ? row.error() : validate(row.data());
+            if (error == null && logins.contains(row.data().getLogin())) {
+                error = "duplicate login in import";
+            } else if (error == null && emails.contains(row.data().getEmail())) {
+                error = "duplicate email in import";
+            }
+            if (error != null) {
+                progress.reject(row.line(), row.data(), error);
+            } else {
+                logins.add(row.data().getLogin());
+                emails.add(row.data().getEmail());
+                valid.add(row);
+            }
+        }
+
+        UserImportRepository.Existing existing = userImportRepository.findExisting(logins, emails);
+        List<Candidate> candidates = new ArrayList<>(valid.size());
+        for (UserImportReader.Row row : valid) {
+            UserImportRowDto data = row.data();
+            if (existing.logins().contains(data.getLogin())) {
+                progress.reject(row.line(), data, "login already exists");
+            } else if (existing.emails().contains(data.getEmail())) {
+                progress.reject(row.line(), data, "email already exists");
+            } else {
+                Future<String> hash = data.getPasswordHash() != null
+                        ? CompletableFuture.completedFuture(normalizeHash(data.getPasswordHash()))
+                        : hashers.submit(() -> encode(data.getPassword()));
+                candidates.add(new Candidate(row.line(), data, roles(data), hash));
+            }
+        }
+
+        List<UserImportRepository.NewUser> users = new ArrayList<>(candidates.size());
+        List<Candidate> accepted = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            try {
+                users.add(new UserImportRepository.NewUser(UUID.randomUUID(), candidate.data().getLogin(),
+                        candidate.data().getEmail(), candidate.passwordHash().get(), candidate.roles()));
+                accepted.add(candidate);
+            } catch (ExecutionException e) {
+                progress.reject(candidate.line(), candidate.data(), "password hashing failed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("User import interrupted", e);
+            }
+        }
+
+        insert(users, accepted, progress);
+        progress.chunkDone(rows.size());
+    }
+
+    /**
+     * Вставляет пакет одной транзакцией. Если параллельная регистрация заняла логин или email после проверки,
+     * пакет откатывается и повторяется построчно, чтобы отклонить только конфликтующие строки.
+     */
+    private void insert(List<UserImportRepository.NewUser> users, List<Candidate> candidates, Progress progress) {
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> userImportRepository.insertAll(users));
+            progress.imported(users.size());
+        } catch (DataIntegrityViolationException e) {
+            for (int i = 0; i < users.size(); i++) {
+                UserImportRepository.NewUser user = users.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> userImportRepository.insertAll(List.of(user)));
+                    progress.imported(1);
+                } catch (DataIntegrityViolationException rowError) {
+                    progress.reject(candidates.get(i).line(), candidates.get(i).data(), "login or email already exists");
+                }
+            }
+        }
+    }
+
+    private String validate(UserImportRowDto data) {
+        Set<ConstraintViolation<UserImportRowDto>> violations = validator.validate(data);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        boolean hasPassword = data.getPassword() != null && !data.getPassword().isBlank();
+        if (hasPassword == (data.getPasswordHash() != null)) {
+            return "exactly one of password and passwordHash is required";
+        }
+        if (data.getPasswordHash() != null && normalizeHash(data.getPasswordHash()) == null) {
+            return "unsupported password hash format, expected BCrypt";
+        }
+        for (String role : roles(data)) {
+            if (!roleCatalog.contains(role)) {
+                return "unknown role " + role;
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> roles(UserImportRowDto data) {
+        return data.getRoles() == null || data.getRoles().isEmpty() ? Set.of(DEFAULT_ROLE) : Set.copyOf(data.getRoles());
+    }
+
+    /**
+     * Приводит готовый хэш к формату хранения {@code {bcrypt}$2a$...}.
+     *
+     * @param hash Хэш из потока импорта.
+     * @return Хэш с префиксом или null, если это не BCrypt.
+     */
+    private static String normalizeHash(String hash) {
+        String bare = hash.startsWith(BCRYPT_PREFIX) ? hash.substring(BCRYPT_PREFIX.length()) : hash;
+        return BCRYPT_HASH.matcher(bare).matches() ? BCRYPT_PREFIX + bare : null;
+    }
+
+    /**
+     * Хэширует пароль через общий ограниченный пул; если пул занят входами пользователей, импорт ждёт и повторяет.
+     */
+    private String encode(String rawPassword) throws InterruptedException {
+        while (true) {
+            try {
+                return passwordEncoder.encode(rawPassword);
+            } catch (PasswordHashingUnavailableException e) {
+                TimeUnit.SECONDS.sleep(e.getRetryAfterSeconds());
+            }
+        }
+    }
+
+    /**
+     * Счётчики импорта и отправка событий.
+     */
+    private static final class Progress {
+
+        private final Consumer<UserImportEventDto> events;
+
+        private long processed;
+
+        private long imported;
+
+        private long failed;
+
+        Progress(Consumer<UserImportEventDto> events) {
+            this.events = events;
+        }
+
+        void reject(long line, UserImportRowDto data, String message) {
+            failed++;
+            events.accept(UserImportEventDto.builder()
+                    .type("error")
+                    .line(line)
+                    .login(data == null ? null : data.getLogin())
+                    .message(message)
+                    .build());
+        }
+
+        void imported(long count) {
+            imported += count;
+        }
+
+        void chunkDone(long rows) {
+            processed += rows;
+            events.accept(event("progress"));
+        }
+
+        UserImportEventDto event(String type) {
+            return UserImportEventDto.builder()
+                    .type(type)
+                    .processed(processed)
+                    .imported(imported)
+                    .failed(failed)
+                    .build();
+        }
+
+    }
+
+}
@@ -1,19 +1,28 @@
 package org.ex9.authservice.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.dto.BulkUserRoleRequestDto;
+import org.ex9.authservice.dto.BulkUserRoleResponseDto;
+import org.ex9.authservice.dto.RoleMembersResponseDto;
 import org.ex9.authservice.dto.UserRoleRequestDto;
 import org.ex9.authservice.dto.UserRoleResponseDto;
 import org.ex9.authservice.entity.Role;
 import org.ex9.authservice.entity.User;
 import org.ex9.authservice.exception.RoleNotFoundException;
 import org.ex9.authservice.exception.UserNotFoundException;
-import org.ex9.authservice.repository.RoleRepository;
+import org.ex9.authservice.repository.RoleMemberRow;
 import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.repository.UserRoleBulkRepository;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 /**
  * Сервис для управления ролями пользователей.
@@ -23,38 +32,126 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserRoleService {
 
+    /**
+     * Число логинов в одном SQL-запросе массового изменения ролей.
+     */
+    static final int BULK_CHUNK_SIZE = 1000;
+
+    /**
+     * Значение after для первой страницы: БД сравнивает UUID побайтно, и нулевой меньше любого.
+     */
+    private static final UUID FIRST_PAGE = new UUID(0, 0);
+
     /**
      * Репозиторий пользователей.
      */
     private final UserRepository userRepository;
 
     /**
-     * Репозиторий ролей.
+     * Справочник ролей.
+     */
+    private final RoleCatalog roleCatalog;
+
+    /**
+     * Репозиторий массовых изменений ролей.
+     */
+    private final UserRoleBulkRepository userRoleBulkRepository;
+
+    /**
+     * Кэш данных пользователей.
+     */
+    private final UserCache userCache;
+
+    /**
+     * Версии токенов пользователей.
      */
-    private final RoleRepository roleRepository;
+    private final TokenVersionService tokenVersionService;
 
     /**
      * Обновляет роли пользователя.
+     * Роли проверяются по справочнику без обращения к БД, а набор ролей изменяется на месте,
+     * поэтому в user_roles пишутся только добавленные и удалённые связи.
+     * Если роли изменились, версия токенов пользователя увеличивается и выданные ему токены перестают приниматься.
      *
      * @param dto DTO с логином пользователя и списком ролей.
      * @throws UserNotFoundException Если пользователь не найден.
      * @throws RoleNotFoundException Если одна из ролей не найдена.
      */
+    @Transactional
+    @Timed(value = "auth.user-roles", extraTags = {"operation", "update"}, description = "User role operations")
     public void updateUserRoles(UserRoleRequestDto dto) {
         User user = userRepository.findByLogin(dto.getUserLogin())
                 .orElseThrow(() -> new UserNotFoundException("User with id " + dto.getUserLogin() + " not found"));
 
-        Set<Role> roleEntities = dto.getRoles().stream()
-                .map(roleId -> roleRepository.findById(roleId)
-                        .orElseThrow(() -> new RoleNotFoundException("Role with id " + roleId + " not found")))
-                .collect(Collectors.toSet());
+        Set<Role> roleEntities = roleCatalog.references(dto.getRoles());
 
-        user.setRoles(roleEntities);
+        boolean changed = user.getRoles().retainAll(roleEntities);
+        changed |= user.getRoles().addAll(roleEntities);
         userRepository.save(user);
+        if (changed) {
+            userRoleBulkRepository.incrementTokenVersion(user);
+            tokenVersionService.evict(List.of(user.getLogin()));
+        }
+        userCache.removeUserFromCache(user.getLogin());
+    }
+
+    /**
+     * Добавляет и отзывает роли у множества пользователей в одной транзакции.
+     * Роли проверяются по справочнику, связи меняются set-based SQL по {@value #BULK_CHUNK_SIZE} логинов за запрос.
+     * Если роль указана и в assign, и в revoke, сначала выполняется отзыв.
+     * Версия токенов увеличивается только у пользователей, у которых изменилась хотя бы одна связь.
+     *
+     * @param dto DTO с логинами и ролями.
+     * @return Число найденных пользователей, ненайденные логины и число изменённых связей.
+     * @throws RoleNotFoundException Если одна из ролей не найдена.
+     */
+    @Transactional
+    @Timed(value = "auth.user-roles", extraTags = {"operation", "bulk"}, description = "User role operations")
+    public BulkUserRoleResponseDto updateRolesInBulk(BulkUserRoleRequestDto dto) {
+        List<String> assign = distinct(dto.getAssign());
+        List<String> revoke = distinct(dto.getRevoke());
+        roleCatalog.requireAll(assign);
+        roleCatalog.requireAll(revoke);
+
+        List<String> logins = distinct(dto.getLogins());
+        Set<String> found = new HashSet<>();
+        Set<String> changed = new HashSet<>();
+        long assigned = 0;
+        long revoked = 0;
+        for (int from = 0; from < logins.size(); from += BULK_CHUNK_SIZE) {
+            List<String> chunk = logins.subList(from, Math.min(from + BULK_CHUNK_SIZE, logins.size()));
+            found.addAll(userRoleBulkRepository.findExistingLogins(chunk));
+            Set<UUID> updated = new HashSet<>();
+            if (!revoke.isEmpty()) {
+                List<UUID> chunkRevoked = userRoleBulkRepository.revoke(chunk, revoke);
+                revoked += chunkRevoked.size();
+                updated.addAll(chunkRevoked);
+            }
+            if (!assign.isEmpty()) {
+                List<UUID> chunkAssigned = userRoleBulkRepository.assign(chunk, assign);
+                assigned += chunkAssigned.size();
+                updated.addAll(chunkAssigned);
+            }
+            if (!updated.isEmpty()) {
+                changed.addAll(userRoleBulkRepository.incrementTokenVersions(updated));
+            }
+        }
+        changed.forEach(userCache::removeUserFromCache);
+        if (!changed.isEmpty()) {
+            tokenVersionService.evict(changed);
+        }
+
+        return BulkUserRoleResponseDto.builder()
+                .matchedUsers(found.size())
+                .notFound(logins.stream().filter(login -> !found.contains(login)).toList())
+                .assigned(assigned)
+                .revoked(revoked)
+                .build();
     }
 
     /**
      * Получает роли пользователя.
+     * Из БД читаются только идентификаторы ролей, сами роли берутся из справочника.
      *
      * @param targetLogin Логин запрашиваемого пользователя.
      * @param currentLogin Логин текущего пользователя.
@@ -63,19 +160,59 @@ public class UserRoleService {
      * @throws AccessDeniedException Если доступ запрещён.
      * @throws UserNotFoundException Если пользователь не найден.
      */
+    @Timed(value = "auth.user-roles", extraTags = {"operation", "get"}, description = "User role operations")
     public UserRoleResponseDto getRolesByLogin(String targetLogin, String currentLogin, boolean isAdmin) {
 
         if (!isAdmin && !targetLogin.equals(currentLogin)) {
             throw new AccessDeniedException("You are not allowed to view roles of other users");
         }
 
-        User user = userRepository.findByLogin(targetLogin)
-                .orElseThrow(() -> new UserNotFoundException("User with id " + targetLogin + " not found"));
+        List<String> roleIds = userRepository.findRoleIdsByLogin(targetLogin);
+        if (roleIds.isEmpty()) {
+            throw new UserNotFoundException("User with id " + targetLogin + " not found");
+        }
+        Set<Role> roles = new HashSet<>();
+        for (String roleId : roleIds) {
+            if (roleId != null) {
+                roles.add(roleCatalog.role(roleId));
+            }
+        }
 
         return UserRoleResponseDto.builder()
                 .userLogin(targetLogin)
-                .roles(user.getRoles())
+                .roles(roles)
                 .build();
     }
 
+    /**
+     * Возвращает страницу пользователей с ролью в порядке их идентификаторов.
+     * Используется keyset-пагинация по индексу user_roles (role_id, user_id): страница начинается сразу после
+     * идентификатора {@code after} и читает из индекса только свои строки, поэтому стоимость запроса
+     * не растёт ни с номером страницы, ни с числом пользователей роли.
+     *
+     * @param roleId Идентификатор роли.
+     * @param after  Идентификатор последнего пользователя предыдущей страницы или null для первой страницы.
+     * @param limit  Размер страницы.
+     * @return Логины страницы и значение after для следующей страницы.
+     * @throws RoleNotFoundException Если роль не найдена.
+     */
+    @Timed(value = "auth.user-roles", extraTags = {"operation", "members"}, description = "User role operations")
+    public RoleMembersResponseDto getRoleMembers(String roleId, UUID after, int limit) {
+        roleCatalog.requireAll(List.of(roleId));
+
+        List<RoleMemberRow> rows = userRoleBulkRepository.findMembersAfter(roleId, after == null ? FIRST_PAGE : after, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<RoleMemberRow> page = hasNext ? rows.subList(0, limit) : rows;
+
+        return RoleMembersResponseDto.builder()
+                .roleId(roleId)
+                .logins(page.stream().map(RoleMemberRow::login).toList())
+                .nextAfter(hasNext ? page.get(page.size() - 1).id() : null)
+                .build();
+    }
+
+    private static List<String> distinct(List<String> values) {
+        return values == null ? List.of() : values.stream().distinct().toList();
+    }
+
 }
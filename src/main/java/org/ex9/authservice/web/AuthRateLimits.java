@@ -0,0 +1,91 @@
+package org.ex9.authservice.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.ex9.authservice.exception.RateLimitExceededException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лимиты частоты входа и регистрации.
+ * Лимиты по IP проверяет {@link RateLimitFilter} до цепочки безопасности, лимит по логину —
+ * контроллер до вызова сервиса, то есть до проверки пароля и обращения к БД.
+ * @author Краковцев Артём
+ */
+@Component
+public class AuthRateLimits {
+
+    /**
+     * Включены ли лимиты.
+     */
+    private final boolean enabled;
+
+    /**
+     * Лимит входов с одного IP.
+     */
+    private final RateLimiter signInByIp;
+
+    /**
+     * Лимит входов под одним логином.
+     */
+    private final RateLimiter signInByLogin;
+
+    /**
+     * Лимит регистраций с одного IP.
+     */
+    private final RateLimiter signUpByIp;
+
+    /**
+     * Создаёт ограничители по настройкам.
+     *
+     * @param properties    Настройки лимитов.
+     * @param meterRegistry Реестр метрик.
+     */
+    public AuthRateLimits(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.signInByIp = new RateLimiter("signin-ip", properties.signInPerIp(), properties.maxKeys(), meterRegistry);
+        this.signInByLogin = new RateLimiter("signin-login", properties.signInPerLogin(), properties.maxKeys(), meterRegistry);
+        this.signUpByIp = new RateLimiter("signup-ip", properties.signUpPerIp(), properties.maxKeys(), meterRegistry);
+    }
+
+    /**
+     * Учитывает вход с IP.
+     *
+     * @param ip Адрес клиента.
+     * @return 0, если вход разрешён, иначе время до следующей попытки в секундах.
+     */
+    public long acquireSignInByIp(String ip) {
+        return enabled ? toRetryAfterSeconds(signInByIp.tryAcquire(ip)) : 0;
+    }
+
+    /**
+     * Учитывает регистрацию с IP.
+     *
+     * @param ip Адрес клиента.
+     * @return 0, если регистрация разрешена, иначе время до следующей попытки в секундах.
+     */
+    public long acquireSignUpByIp(String ip) {
+        return enabled ? toRetryAfterSeconds(signUpByIp.tryAcquire(ip)) : 0;
+    }
+
+    /**
+     * Учитывает вход под логином.
+     *
+     * @param login Логин из запроса.
+     * @throws RateLimitExceededException Если попыток входа под этим логином слишком много.
+     */
+    public void checkSignInByLogin(String login) {
+        if (!enabled) {
+            return;
+        }
+        long retryAfter = toRetryAfterSeconds(signInByLogin.tryAcquire(login));
+        if (retryAfter > 0) {
+            throw new RateLimitExceededException("Too many sign-in attempts, retry later", retryAfter);
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return waitNanos == 0 ? 0 : Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+}
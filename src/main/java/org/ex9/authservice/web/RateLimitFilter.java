@@ -0,0 +1,96 @@
+package org.ex9.authservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.ex9.authservice.dto.ErrorResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Фильтр, ограничивающий частоту входа и регистрации с одного IP.
+ * Стоит перед фильтром допуска и цепочкой безопасности: отклонённый запрос получает 429 с Retry-After,
+ * не занимая разрешение допуска, поток хэширования паролей и соединение с БД.
+ * За обратным прокси адрес клиента берётся из {@code X-Forwarded-For} при {@code server.forward-headers-strategy}.
+ * @author Краковцев Артём
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 50)
+@ConditionalOnProperty(prefix = "web.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String SIGN_IN_PATH = "/auth/signin";
+
+    private static final String SIGN_UP_PATH = "/auth/signup";
+
+    /**
+     * Лимиты входа и регистрации.
+     */
+    private final AuthRateLimits rateLimits;
+
+    /**
+     * Сериализатор тела ответа при отказе.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Пропускает запрос, если лимит его IP не исчерпан, иначе отвечает 429.
+     *
+     * @param request     HTTP-запрос.
+     * @param response    HTTP-ответ.
+     * @param filterChain Цепочка фильтров.
+     * @throws ServletException Если возникает ошибка сервлета.
+     * @throws IOException      Если возникает ошибка ввода-вывода.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long retryAfter = isSignUp(request)
+                ? rateLimits.acquireSignUpByIp(request.getRemoteAddr())
+                : rateLimits.acquireSignInByIp(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            reject(response, retryAfter);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Фильтруются только вход и регистрация.
+     *
+     * @param request HTTP-запрос.
+     * @return true для всех остальных запросов.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isSignUp(request) && !(HttpMethod.POST.matches(request.getMethod()) && path(request).equals(SIGN_IN_PATH));
+    }
+
+    private static boolean isSignUp(HttpServletRequest request) {
+        return HttpMethod.PUT.matches(request.getMethod()) && path(request).equals(SIGN_UP_PATH);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(HttpServletResponse response, long retryAfter) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("Too many requests, retry later"));
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.ex9.authservice.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки ограничения частоты запросов входа и регистрации.
+ *
+ * @param enabled        Включено ли ограничение.
+ * @param maxKeys        Максимальное число отслеживаемых ключей (IP или логинов) на один лимит.
+ * @param signInPerIp    Лимит входов с одного IP.
+ * @param signInPerLogin Лимит входов под одним логином.
+ * @param signUpPerIp    Лимит регистраций с одного IP.
+ * @author Краковцев Артём
+ */
+@ConfigurationProperties(prefix = "web.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") int maxKeys,
+                                  @DefaultValue Limit signInPerIp,
+                                  @DefaultValue Limit signInPerLogin,
+                                  @DefaultValue Limit signUpPerIp) {
+
+    /**
+     * Лимит: не более {@code requests} запросов за {@code period}, допускается всплеск до {@code requests} подряд.
+     *
+     * @param requests Число запросов за период.
+     * @param period   Период.
+     */
+    public record Limit(@DefaultValue("10") int requests, @DefaultValue("1m") Duration period) {
+
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.ex9.authservice.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель частоты запросов по ключу на алгоритме GCRA (эквивалент token bucket).
+ * Состояние ключа — одно значение «теоретического времени прибытия» в {@link AtomicLong}, которое меняется CAS без блокировок.
+ * Ключи хранятся в ограниченном по размеру кэше и удаляются после простоя длиной в период лимита:
+ * к этому моменту состояние ключа не отличается от нового.
+ * @author Краковцев Артём
+ */
+public class RateLimiter {
+
+    /**
+     * Состояния ключей: ключ -> теоретическое время прибытия следующего запроса в наносекундах.
+     */
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Интервал между запросами при равномерном потоке.
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * Допустимое опережение графика, задаёт размер всплеска.
+     */
+    private final long burstNanos;
+
+    /**
+     * Источник монотонного времени.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Число отклонённых запросов.
+     */
+    private final Counter rejectedCounter;
+
+    /**
+     * Создаёт ограничитель и регистрирует метрику отказов.
+     *
+     * @param name          Имя лимита в метриках.
+     * @param limit         Лимит.
+     * @param maxKeys       Максимальное число отслеживаемых ключей.
+     * @param meterRegistry Реестр метрик.
+     */
+    public RateLimiter(String name, RateLimitProperties.Limit limit, int maxKeys, MeterRegistry meterRegistry) {
+        this(name, limit, maxKeys, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(String name, RateLimitProperties.Limit limit, int maxKeys, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.burstNanos = limit.period().toNanos();
+        this.emissionIntervalNanos = burstNanos / limit.requests();
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(limit.period())
+                .build();
+        this.rejectedCounter = Counter.builder("http.rate-limit.rejected")
+                .description("Requests rejected by a rate limit")
+                .tag("limit", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Пытается пропустить запрос с ключом.
+     *
+     * @param key Ключ (IP или логин).
+     * @return 0, если запрос разрешён, иначе через сколько наносекунд следующий запрос будет разрешён.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = arrival.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                rejectedCounter.increment();
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.ex9.authservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ex9.authservice.dto.ErrorResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр, ограничивающий число одновременно обрабатываемых запросов.
+ * Запрос, не получивший разрешение за {@code web.admission.max-wait}, завершается 503 с заголовком Retry-After
+ * ещё до цепочки безопасности, не занимая соединение с БД.
+ * Ожидание построено на {@link Semaphore}, поэтому виртуальный поток отпускает поток-носитель.
+ * @author Краковцев Артём
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@ConditionalOnProperty(prefix = "web.admission", name = "enabled", havingValue = "true")
+public class RequestAdmissionFilter extends OncePerRequestFilter {
+
+    /**
+     * Префикс имён метрик.
+     */
+    private static final String METRIC_PREFIX = "http.admission";
+
+    /**
+     * Разрешения на обработку запросов.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Настройки допуска.
+     */
+    private final RequestAdmissionProperties properties;
+
+    /**
+     * Сериализатор тела ответа при отказе.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Время ожидания допуска.
+     */
+    private final Timer waitTimer;
+
+    /**
+     * Число отклонённых запросов.
+     */
+    private final Counter rejectedCounter;
+
+    /**
+     * Создаёт фильтр и регистрирует метрики.
+     *
+     * @param properties    Настройки допуска.
+     * @param objectMapper  Сериализатор JSON.
+     * @param meterRegistry Реестр метрик.
+     */
+    public RequestAdmissionFilter(RequestAdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(properties.maxConcurrent());
+        this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait")
+                .description("Time a request waited for an admission permit")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Requests rejected because no admission permit became available in time")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", permits, p -> properties.maxConcurrent() - p.availablePermits())
+                .description("Requests currently holding an admission permit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Пропускает запрос, если за отведённое время удалось получить разрешение, иначе отвечает 503.
+     *
+     * @param request     HTTP-запрос.
+     * @param response    HTTP-ответ.
+     * @param filterChain Цепочка фильтров.
+     * @throws ServletException Если возникает ошибка сервлета.
+     * @throws IOException      Если возникает ошибка ввода-вывода.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(properties.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!admitted) {
+            rejectedCounter.increment();
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Служебные эндпоинты actuator обслуживаются без допуска, чтобы проверки живости и сбор метрик работали под нагрузкой.
+     *
+     * @param request HTTP-запрос.
+     * @return true для путей {@code /actuator/**}.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator/");
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("Server is busy, retry later"));
+    }
+
+}
@@ -0,0 +1,25 @@
+package org.ex9.authservice.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки допуска запросов.
+ * С виртуальными потоками Tomcat больше не ограничивает число одновременно обрабатываемых запросов,
+ * поэтому этот предел не даёт тысячам запросов одновременно встать в очередь пула соединений.
+ *
+ * @param enabled           Включён ли фильтр допуска.
+ * @param maxConcurrent     Максимальное число одновременно обрабатываемых запросов.
+ * @param maxWait           Сколько запрос может ждать допуска, прежде чем получить 503.
+ * @param retryAfterSeconds Значение заголовка Retry-After при отказе.
+ * @author Краковцев Артём
+ */
+@ConfigurationProperties(prefix = "web.admission")
+public record RequestAdmissionProperties(@DefaultValue("false") boolean enabled,
+                                         @DefaultValue("200") int maxConcurrent,
+                                         @DefaultValue("250ms") Duration maxWait,
+                                         @DefaultValue("1") long retryAfterSeconds) {
+
+}
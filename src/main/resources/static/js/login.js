@@ -5,7 +5,6 @@ async function loginClick(){
         "login": login,
         "password": password
     };
-    console.log(payload)
     try {
         const response = await fetch('/auth/signin', {
             method: 'POST',
@@ -16,9 +15,8 @@ async function loginClick(){
         });
         console.log(response)
         if (response.ok) {
-            const token = await response.text();
-            console.log(token)
-            window.location.href = `/login/success?token=${token}`;
+            const tokens = await response.json();
+            window.location.href = `/login/success?token=${tokens.accessToken}`;
         }
         else {
             const errorMsg = await response.text();
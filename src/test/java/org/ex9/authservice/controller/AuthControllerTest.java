@@ -1,11 +1,21 @@
 package org.ex9.authservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ex9.authservice.dto.BatchIntrospectionRequestDto;
+import org.ex9.authservice.dto.IntrospectionRequestDto;
+import org.ex9.authservice.dto.RefreshRequestDto;
+import org.ex9.authservice.dto.RevokeTokenRequestDto;
 import org.ex9.authservice.dto.SignInRequestDto;
 import org.ex9.authservice.dto.SignUpRequestDto;
+import org.ex9.authservice.dto.TokenResponseDto;
+import org.ex9.authservice.exception.InvalidRefreshTokenException;
+import org.ex9.authservice.exception.PasswordHashingUnavailableException;
 import org.ex9.authservice.exception.RoleNotFoundException;
 import org.ex9.authservice.exception.UserAlreadyExistsException;
+import org.ex9.authservice.exception.UserNotFoundException;
+import org.ex9.authservice.security.lockout.LoginAttemptService;
 import org.ex9.authservice.service.AuthService;
+import org.ex9.authservice.service.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -15,8 +25,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Collections;
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -35,17 +49,28 @@ class AuthControllerTest {
     @Autowired
     private AuthService service;
 
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
     @TestConfiguration
     static class MockConfig {
         @Bean
         public AuthService authService() {
             return Mockito.mock(AuthService.class);
         }
+
+        @Bean
+        public TokenRevocationService tokenRevocationService() {
+            return Mockito.mock(TokenRevocationService.class);
+        }
     }
 
     @BeforeEach
     void setUp() {
-        reset(service);
+        reset(service, revocationService);
     }
 
     @Test
@@ -93,13 +118,228 @@ class AuthControllerTest {
     @Test
     void testSignIn_returnsJwt() throws Exception {
         SignInRequestDto dto = new SignInRequestDto("testuser", "pass123");
-        Mockito.when(service.signIn(any())).thenReturn("mocked-jwt-token");
+        Mockito.when(service.signIn(any())).thenReturn(new TokenResponseDto("mocked-jwt-token", "mocked-refresh-token", 1200));
+
+        mockMvc.perform(post("/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("mocked-jwt-token"))
+                .andExpect(jsonPath("$.refreshToken").value("mocked-refresh-token"))
+                .andExpect(jsonPath("$.expiresIn").value(1200));
+    }
+
+    @Test
+    void testSignIn_whenHashingOverloaded_returnServiceUnavailable() throws Exception {
+        SignInRequestDto dto = new SignInRequestDto("testuser", "pass123");
+        Mockito.when(service.signIn(any())).thenThrow(new PasswordHashingUnavailableException("Password hashing is overloaded, try again later", 2));
+
+        mockMvc.perform(post("/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.message").value("Password hashing is overloaded, try again later"));
+    }
+
+    @Test
+    void testSignIn_whenLoginLimitExceeded_returnTooManyRequests() throws Exception {
+        SignInRequestDto dto = new SignInRequestDto("limited-user", "pass123");
+        Mockito.when(service.signIn(any())).thenReturn(new TokenResponseDto("mocked-jwt-token", "mocked-refresh-token", 1200));
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(post("/auth/signin")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(post("/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value("Too many sign-in attempts, retry later"));
+        verify(service, times(10)).signIn(any());
+    }
+
+    @Test
+    void testSignIn_whenLoginLocked_returnTooManyRequestsWithoutAuthentication() throws Exception {
+        SignInRequestDto dto = new SignInRequestDto("locked-user", "pass123");
+        for (int i = 0; i < 10; i++) {
+            loginAttemptService.recordFailure("locked-user");
+        }
 
         mockMvc.perform(post("/auth/signin")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value("Too many failed sign-in attempts, retry later"));
+        verify(service, never()).signIn(any());
+    }
+
+    @Test
+    void testRefresh_returnsNewTokens() throws Exception {
+        RefreshRequestDto dto = new RefreshRequestDto("old-refresh-token");
+        Mockito.when(service.refresh(dto)).thenReturn(new TokenResponseDto("new-jwt-token", "new-refresh-token", 1200));
+
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("new-jwt-token"))
+                .andExpect(jsonPath("$.refreshToken").value("new-refresh-token"));
+    }
+
+    @Test
+    void testRefresh_whenTokenReused_returnUnauthorized() throws Exception {
+        RefreshRequestDto dto = new RefreshRequestDto("used-refresh-token");
+        Mockito.when(service.refresh(dto)).thenThrow(new InvalidRefreshTokenException("Refresh token reuse detected"));
+
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Refresh token reuse detected"));
+    }
+
+    @Test
+    void testIntrospect_whenTokenInvalid_returnInactive() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new IntrospectionRequestDto("invalid.token.value"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(false))
+                .andExpect(jsonPath("$.sub").doesNotExist());
+    }
+
+    @Test
+    void testIntrospectBatch_returnResultPerToken() throws Exception {
+        BatchIntrospectionRequestDto dto = new BatchIntrospectionRequestDto(List.of("a.b.c", "d.e.f"));
+
+        mockMvc.perform(post("/auth/introspect/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
                 .andExpect(status().isOk())
-                .andExpect(content().string("mocked-jwt-token"));
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].active").value(false));
+    }
+
+    @Test
+    void testIntrospectBatch_whenTooLarge_returnBadRequest() throws Exception {
+        BatchIntrospectionRequestDto dto = new BatchIntrospectionRequestDto(
+                Collections.nCopies(BatchIntrospectionRequestDto.MAX_TOKENS + 1, "a.b.c"));
+
+        mockMvc.perform(post("/auth/introspect/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testLogout_revokeAccessAndRefreshTokens() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer access-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequestDto("refresh-token"))))
+                .andExpect(status().isNoContent());
+
+        verify(revocationService).logout("access-token", "refresh-token");
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testLogout_withoutBody_revokeAccessToken() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer access-token"))
+                .andExpect(status().isNoContent());
+
+        verify(revocationService).logout("access-token", null);
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testLogout_whenNotBearerAuthorization_returnBadRequest() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Basic dXNlcjE6cGFzcw=="))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/auth/logout"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(revocationService);
+    }
+
+    @Test
+    void testLogout_whenBearerTokenInvalid_returnUnauthorized() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer not-a-jwt"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", "Bearer error=\"invalid_token\""))
+                .andExpect(jsonPath("$.message").value("Invalid or expired token"));
+
+        verifyNoInteractions(revocationService);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testRevoke_whenAdmin_returnNoContent() throws Exception {
+        Mockito.when(revocationService.revoke("jwt-token")).thenReturn(true);
+
+        mockMvc.perform(post("/auth/revoke")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RevokeTokenRequestDto("jwt-token"))))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testRevoke_whenTokenInvalid_returnBadRequest() throws Exception {
+        Mockito.when(revocationService.revoke("jwt-token")).thenReturn(false);
+
+        mockMvc.perform(post("/auth/revoke")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RevokeTokenRequestDto("jwt-token"))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testRevoke_whenNotAdmin_returnForbidden() throws Exception {
+        mockMvc.perform(post("/auth/revoke")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RevokeTokenRequestDto("jwt-token"))))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(revocationService);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testRevokeAllSessions_whenAdmin_returnNoContent() throws Exception {
+        mockMvc.perform(post("/auth/sessions/user1/revoke"))
+                .andExpect(status().isNoContent());
+
+        verify(revocationService).revokeAllSessions("user1");
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testRevokeAllSessions_whenUserNotFound_returnNotFound() throws Exception {
+        doThrow(new UserNotFoundException("User with id ghost not found")).when(revocationService).revokeAllSessions("ghost");
+
+        mockMvc.perform(post("/auth/sessions/ghost/revoke"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("User with id ghost not found"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testRevokeAllSessions_whenNotAdmin_returnForbidden() throws Exception {
+        mockMvc.perform(post("/auth/sessions/user2/revoke"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(revocationService);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package org.ex9.authservice.controller;
+
+import org.ex9.authservice.entity.Role;
+import org.ex9.authservice.service.RoleCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RoleControllerTest {
+
+    private static final String ETAG = "\"abc\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public RoleCatalog roleCatalog() {
+            return Mockito.mock(RoleCatalog.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        reset(roleCatalog);
+        when(roleCatalog.getETag()).thenReturn(ETAG);
+        when(roleCatalog.getRoles()).thenReturn(List.of(
+                Role.builder().id("ADMIN").name("Administrator").build(),
+                Role.builder().id("USER").name("User").build()));
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testGetRoles_returnsCatalogWithETag() throws Exception {
+        mockMvc.perform(get("/roles"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$[0].id").value("ADMIN"))
+                .andExpect(jsonPath("$[1].id").value("USER"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testGetRoles_whenETagMatches_returnNotModified() throws Exception {
+        mockMvc.perform(get("/roles").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testRefresh_success() throws Exception {
+        mockMvc.perform(post("/roles/refresh"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+
+        verify(roleCatalog, times(1)).refresh();
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testRefresh_whenNotAdmin_accessDenied() throws Exception {
+        mockMvc.perform(post("/roles/refresh"))
+                .andExpect(status().isForbidden());
+
+        verify(roleCatalog, never()).refresh();
+    }
+
+}
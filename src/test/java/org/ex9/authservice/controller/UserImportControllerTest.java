@@ -0,0 +1,99 @@
+package org.ex9.authservice.controller;
+
+import org.ex9.authservice.dto.UserImportEventDto;
+import org.ex9.authservice.exception.InvalidImportFormatException;
+import org.ex9.authservice.service.UserImportReader;
+import org.ex9.authservice.service.UserImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public UserImportService userImportService() {
+            return Mockito.mock(UserImportService.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        reset(userImportService);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    @SuppressWarnings("unchecked")
+    void testImportUsers_streamEventsAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserImportEventDto> events = invocation.getArgument(2);
+            events.accept(UserImportEventDto.builder().type("error").line(2L).login("user2").message("login already exists").build());
+            UserImportEventDto summary = UserImportEventDto.builder().type("summary").processed(2L).imported(1L).failed(1L).build();
+            events.accept(summary);
+            return summary;
+        }).when(userImportService).importUsers(any(), eq(UserImportReader.Format.CSV), any(Consumer.class));
+
+        mockMvc.perform(post("/users/import")
+                        .contentType("text/csv")
+                        .content("login,email,password\nuser1,user1@example.com,p1\nuser2,user2@example.com,p2\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"type\":\"error\",\"line\":2,\"login\":\"user2\",\"message\":\"login already exists\"}\n"
+                                + "{\"type\":\"summary\",\"processed\":2,\"imported\":1,\"failed\":1}\n"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    @SuppressWarnings("unchecked")
+    void testImportUsers_whenHeaderInvalid_returnBadRequest() throws Exception {
+        when(userImportService.importUsers(any(), any(), any(Consumer.class)))
+                .thenThrow(new InvalidImportFormatException("CSV header is missing"));
+
+        mockMvc.perform(post("/users/import")
+                        .contentType("text/csv")
+                        .content(""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("CSV header is missing"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testImportUsers_whenNotAdmin_accessDenied() throws Exception {
+        mockMvc.perform(post("/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(userImportService);
+    }
+
+}
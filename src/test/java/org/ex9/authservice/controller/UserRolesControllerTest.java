@@ -1,6 +1,9 @@
 package org.ex9.authservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ex9.authservice.dto.BulkUserRoleRequestDto;
+import org.ex9.authservice.dto.BulkUserRoleResponseDto;
+import org.ex9.authservice.dto.RoleMembersResponseDto;
 import org.ex9.authservice.dto.UserRoleRequestDto;
 import org.ex9.authservice.dto.UserRoleResponseDto;
 import org.ex9.authservice.entity.Role;
@@ -22,6 +25,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -143,6 +147,50 @@ class UserRolesControllerTest {
         verify(userRoleService, times(1)).updateUserRoles(request);
     }
 
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testUpdateRolesInBulk_success() throws Exception {
+        BulkUserRoleRequestDto request = new BulkUserRoleRequestDto(List.of("user1", "ghost"), List.of("CREDIT_USER"), null);
+
+        when(userRoleService.updateRolesInBulk(request)).thenReturn(BulkUserRoleResponseDto.builder()
+                .matchedUsers(1)
+                .notFound(List.of("ghost"))
+                .assigned(1)
+                .build());
+
+        mockMvc.perform(put("/user-roles/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matchedUsers").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value("ghost"))
+                .andExpect(jsonPath("$.assigned").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testUpdateRolesInBulk_whenNothingToChange_validationError() throws Exception {
+        mockMvc.perform(put("/user-roles/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"logins\":[\"user1\"]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(userRoleService, never()).updateRolesInBulk(any());
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testUpdateRolesInBulk_whenNotAdmin_accessDenied() throws Exception {
+        BulkUserRoleRequestDto request = new BulkUserRoleRequestDto(List.of("user1"), List.of("ADMIN"), null);
+
+        mockMvc.perform(put("/user-roles/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+
+        verify(userRoleService, never()).updateRolesInBulk(any());
+    }
+
     @Test
     @WithMockUser(username = "admin", authorities = {"ADMIN"})
     void testGetUserRoles_adminSuccess() throws Exception {
@@ -211,4 +259,52 @@ class UserRolesControllerTest {
         verify(userRoleService, times(1)).getRolesByLogin("nonexistent", "admin", true);
     }
 
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testGetRoleMembers_success() throws Exception {
+        UUID after = UUID.randomUUID();
+        UUID nextAfter = UUID.randomUUID();
+        when(userRoleService.getRoleMembers("ADMIN", after, 2)).thenReturn(RoleMembersResponseDto.builder()
+                .roleId("ADMIN")
+                .logins(List.of("user2", "user3"))
+                .nextAfter(nextAfter)
+                .build());
+
+        mockMvc.perform(get("/user-roles/by-role/ADMIN").param("after", after.toString()).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logins[1]").value("user3"))
+                .andExpect(jsonPath("$.nextAfter").value(nextAfter.toString()));
+
+        verify(userRoleService, times(1)).getRoleMembers("ADMIN", after, 2);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testGetRoleMembers_whenAfterNotUuid_validationError() throws Exception {
+        mockMvc.perform(get("/user-roles/by-role/ADMIN").param("after", "user1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation error: after: invalid value"));
+
+        verify(userRoleService, never()).getRoleMembers(any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"ADMIN"})
+    void testGetRoleMembers_whenLimitTooLarge_validationError() throws Exception {
+        mockMvc.perform(get("/user-roles/by-role/ADMIN").param("limit", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation error: limit: must be less than or equal to 1000"));
+
+        verify(userRoleService, never()).getRoleMembers(any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "user1", authorities = {"USER"})
+    void testGetRoleMembers_whenNotAdmin_accessDenied() throws Exception {
+        mockMvc.perform(get("/user-roles/by-role/ADMIN"))
+                .andExpect(status().isForbidden());
+
+        verify(userRoleService, never()).getRoleMembers(any(), any(), anyInt());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,228 @@
+package org.ex9.authservice.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.ex9.authservice.dto.SignInRequestDto;
+import org.ex9.authservice.dto.SignUpRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный тест: реальная цепочка фильтров, JPA и BCrypt на H2 в режиме PostgreSQL.
+ * Смесь запросов и параллелизм задаются свойствами {@code load.*} (см. application-load.yml),
+ * по каждому типу запроса выводятся пропускная способность и перцентили задержки.
+ */
+@Tag("load")
+@ActiveProfiles("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AuthLoadTest {
+
+    private static final String PASSWORD = "load-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${load.users}")
+    private int userCount;
+
+    @Value("${load.warmup-requests}")
+    private int warmupRequests;
+
+    @Value("${load.requests}")
+    private int requests;
+
+    @Value("${load.concurrency}")
+    private int concurrency;
+
+    @Value("${load.mix}")
+    private String mix;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicLong loginSequence = new AtomicLong();
+
+    private final List<String> logins = new ArrayList<>();
+
+    private final Map<String, String> accessTokens = new ConcurrentHashMap<>();
+
+    private enum Operation { SIGNUP, SIGNIN, ROLES }
+
+    /**
+     * Статистика одного типа запроса.
+     */
+    private static final class Stats {
+
+        private final Histogram latencyMicros = new ConcurrentHistogram(3);
+
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        private final LongAdder failures = new LongAdder();
+
+        void record(long startNanos, int status) {
+            latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+    }
+
+    @BeforeEach
+    void registerUsers() throws Exception {
+        for (int i = 0; i < userCount; i++) {
+            String login = nextLogin();
+            assertEquals(200, signUp(login).statusCode(), "Не удалось зарегистрировать пользователя " + login);
+            HttpResponse<String> signIn = signIn(login);
+            assertEquals(200, signIn.statusCode(), "Не удалось войти пользователем " + login);
+            accessTokens.put(login, objectMapper.readTree(signIn.body()).get("accessToken").asText());
+            logins.add(login);
+        }
+    }
+
+    @Test
+    void runMixedLoad() throws Exception {
+        Operation[] weighted = parseMix(mix);
+        run(weighted, warmupRequests);
+
+        long started = System.nanoTime();
+        Map<Operation, Stats> stats = run(weighted, requests);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        report(stats, seconds);
+        stats.forEach((operation, s) -> {
+            assertEquals(0, s.failures.sum(), operation + ": запросы завершились исключением");
+            s.statuses.forEach((status, count) -> assertTrue(status == 200 || status == 503,
+                    operation + ": неожиданный статус " + status + " (" + count.sum() + " раз)"));
+        });
+    }
+
+    private Map<Operation, Stats> run(Operation[] weighted, int total) throws Exception {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+        AtomicInteger remaining = new AtomicInteger(total);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(workers.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        Operation operation = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+                        execute(operation, stats.get(operation));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return stats;
+    }
+
+    private void execute(Operation operation, Stats stats) {
+        String login = logins.get(ThreadLocalRandom.current().nextInt(logins.size()));
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = switch (operation) {
+                case SIGNUP -> signUp(nextLogin());
+                case SIGNIN -> signIn(login);
+                case ROLES -> send(HttpRequest.newBuilder(uri("/user-roles/" + login))
+                        .header("Authorization", "Bearer " + accessTokens.get(login))
+                        .GET());
+            };
+            stats.record(start, response.statusCode());
+        } catch (Exception e) {
+            stats.failures.increment();
+        }
+    }
+
+    private HttpResponse<String> signUp(String login) throws Exception {
+        SignUpRequestDto dto = new SignUpRequestDto(login, PASSWORD, login + "@load.test");
+        return send(HttpRequest.newBuilder(uri("/auth/signup"))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(dto))));
+    }
+
+    private HttpResponse<String> signIn(String login) throws Exception {
+        SignInRequestDto dto = new SignInRequestDto(login, PASSWORD);
+        return send(HttpRequest.newBuilder(uri("/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(dto))));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private String nextLogin() {
+        return "load-" + System.nanoTime() + "-" + loginSequence.incrementAndGet();
+    }
+
+    private static Operation[] parseMix(String mix) {
+        List<Operation> weighted = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split(":");
+            Operation operation = Operation.valueOf(entry[0].trim().toUpperCase());
+            for (int i = 0; i < Integer.parseInt(entry[1].trim()); i++) {
+                weighted.add(operation);
+            }
+        }
+        return weighted.toArray(Operation[]::new);
+    }
+
+    private void report(Map<Operation, Stats> stats, double seconds) {
+        StringBuilder out = new StringBuilder()
+                .append(String.format("%nLoad test: %d requests, concurrency %d, mix %s, %.1f s, %.1f req/s%n",
+                        requests, concurrency, mix, seconds, requests / seconds))
+                .append(String.format("%-8s %8s %10s %10s %10s %10s %10s  %s%n",
+                        "op", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "statuses"));
+        stats.forEach((operation, s) -> {
+            Histogram h = s.latencyMicros;
+            out.append(String.format("%-8s %8d %10.1f %10.2f %10.2f %10.2f %10.2f  %s%n",
+                    operation.name().toLowerCase(), h.getTotalCount(), h.getTotalCount() / seconds,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0,
+                    s.statuses + (s.failures.sum() > 0 ? " failures=" + s.failures.sum() : "")));
+        });
+        System.out.println(out);
+    }
+
+}
@@ -0,0 +1,250 @@
+package org.ex9.authservice.security.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ex9.authservice.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test_secret_code_that_is_long_enough_for_hs256";
+
+    private JwtService jwtService;
+
+    private final UserDetails user = User.withUsername("user1")
+            .password("")
+            .authorities(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority("ADMIN"))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        jwtService = createService(SECRET, 60_000L);
+    }
+
+    private static JwtService createService(String secret, long expiration) {
+        JwtKeyProvider keyProvider = new JwtKeyProvider(
+                new JwtKeyProperties(SignatureAlgorithm.HS256, null, List.of()), secret);
+        return createService(keyProvider, expiration);
+    }
+
+    private static JwtService createService(JwtKeyProvider keyProvider, long expiration) {
+        return createService(keyProvider, expiration, new SimpleMeterRegistry());
+    }
+
+    private static JwtService createService(JwtKeyProvider keyProvider, long expiration, MeterRegistry meterRegistry) {
+        JwtService service = new JwtService(new VerifiedTokenCache(true, 100, meterRegistry), keyProvider, meterRegistry);
+        ReflectionTestUtils.setField(service, "expiration", expiration);
+        service.init();
+        return service;
+    }
+
+    private static JwtKeyProvider rsaKeyProvider(String activeKeyId, KeyPair... keyPairs) {
+        List<JwtKeyProperties.Key> keys = new ArrayList<>();
+        for (int i = 0; i < keyPairs.length; i++) {
+            keys.add(new JwtKeyProperties.Key("key-" + i,
+                    pem("PRIVATE KEY", keyPairs[i].getPrivate().getEncoded()),
+                    pem("PUBLIC KEY", keyPairs[i].getPublic().getEncoded())));
+        }
+        return new JwtKeyProvider(new JwtKeyProperties(SignatureAlgorithm.RS256, activeKeyId, keys), "");
+    }
+
+    private static ByteArrayResource pem(String type, byte[] der) {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    @Test
+    void testVerify_returnsSubjectAndRoles() {
+        String token = jwtService.generateToken(user);
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals("user1", verified.subject());
+        assertEquals(2, verified.roles().size());
+        assertTrue(verified.roles().containsAll(List.of("USER", "ADMIN")));
+        assertNotNull(verified.issuedAt());
+        assertTrue(verified.expiresAt().isAfter(verified.issuedAt()));
+        assertTrue(jwtService.validateToken(verified, user));
+    }
+
+    @Test
+    void testVerify_returnsTokenIdAndVersion() {
+        UserDetailsImpl versioned = new UserDetailsImpl(UUID.randomUUID(), "user1", "", Set.of(new SimpleGrantedAuthority("USER")), 7);
+
+        VerifiedToken first = jwtService.verify(jwtService.generateToken(versioned));
+        VerifiedToken second = jwtService.verify(jwtService.generateToken(versioned));
+
+        assertEquals(7L, first.version());
+        assertNull(jwtService.verify(jwtService.generateToken(user)).version(), "Без версии пользователя claim ver не пишется");
+        assertNotNull(first.id());
+        assertNotEquals(first.id(), second.id(), "Каждый токен должен получать свой jti");
+    }
+
+    @Test
+    void testVerify_whenExpired_throwExpiredJwtException() {
+        String token = createService(SECRET, -1_000L).generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void testVerify_whenSignedWithOtherKey_throwSignatureException() {
+        String token = createService("another_secret_code_that_is_long_enough_for_hs256", 60_000L).generateToken(user);
+
+        assertThrows(SignatureException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void testVerify_whenRs256_useKeyIdAfterRotation() throws Exception {
+        KeyPair oldKey = rsaKeyPair();
+        KeyPair newKey = rsaKeyPair();
+        String oldToken = createService(rsaKeyProvider("key-0", oldKey), 60_000L).generateToken(user);
+
+        JwtKeyProvider rotated = rsaKeyProvider("key-1", oldKey, newKey);
+        JwtService service = createService(rotated, 60_000L);
+        String newToken = service.generateToken(user);
+
+        assertEquals("key-0", Jwts.parserBuilder().setSigningKeyResolver(rotated).build()
+                .parseClaimsJws(oldToken).getHeader().getKeyId());
+        assertEquals("user1", service.verify(oldToken).subject());
+        assertEquals("user1", service.verify(newToken).subject());
+        assertEquals(2, ((List<?>) rotated.getJwks().get("keys")).size());
+        assertFalse(rotated.getJwks().toString().contains("\"d\""));
+    }
+
+    @Test
+    void testVerify_whenKeyIdUnknown_throwSignatureException() throws Exception {
+        String token = createService(rsaKeyProvider("key-0", rsaKeyPair()), 60_000L).generateToken(user);
+        JwtService service = createService(rsaKeyProvider("key-0", rsaKeyPair()), 60_000L);
+
+        assertThrows(SignatureException.class, () -> service.verify(token));
+    }
+
+    @Test
+    void testVerify_whenHs256TokenPresentedToRs256_reject() throws Exception {
+        String token = jwtService.generateToken(user);
+        JwtService service = createService(rsaKeyProvider("key-0", rsaKeyPair()), 60_000L);
+
+        assertThrows(JwtException.class, () -> service.verify(token));
+    }
+
+    @Test
+    void testVerify_recordOutcomeMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtKeyProvider keyProvider = new JwtKeyProvider(new JwtKeyProperties(SignatureAlgorithm.HS256, null, List.of()), SECRET);
+        JwtService service = createService(keyProvider, 60_000L, meterRegistry);
+        String valid = service.generateToken(user);
+        String expired = createService(SECRET, -1_000L).generateToken(user);
+        String foreign = createService("another_secret_code_that_is_long_enough_for_hs256", 60_000L).generateToken(user);
+
+        service.verify(valid);
+        service.verify(valid);
+        assertThrows(ExpiredJwtException.class, () -> service.verify(expired));
+        assertThrows(SignatureException.class, () -> service.verify(foreign));
+        assertThrows(JwtException.class, () -> service.verify("not-a-jwt"));
+
+        assertEquals(2, meterRegistry.get("auth.token.verification").tag("outcome", "ok").timer().count());
+        assertEquals(1, meterRegistry.get("auth.token.verification").tag("outcome", "expired").timer().count());
+        assertEquals(1, meterRegistry.get("auth.token.verification").tag("outcome", "bad_signature").timer().count());
+        assertEquals(1, meterRegistry.get("auth.token.verification").tag("outcome", "malformed").timer().count());
+    }
+
+    @Test
+    void testVerify_whenStructurallyInvalid_rejectBeforeParsing() {
+        String valid = jwtService.generateToken(user);
+        List<String> invalid = List.of("", "not-a-jwt", "a.b", "a.b.c.d", "a..c", valid + ".", valid.replace('.', '!'),
+                valid.substring(0, valid.lastIndexOf('.') + 1), "a".repeat(JwtService.MAX_TOKEN_LENGTH) + ".b.c");
+
+        for (String token : invalid) {
+            InvalidTokenException exception = assertThrows(InvalidTokenException.class, () -> jwtService.verify(token), token);
+            assertEquals(InvalidTokenException.Reason.MALFORMED, exception.getReason());
+            assertEquals(0, exception.getStackTrace().length, "Исключение отказа не должно строить стек");
+        }
+        assertDoesNotThrow(() -> JwtService.checkStructure(valid));
+    }
+
+    @Test
+    void testVerify_whenRejectedTokenRepeated_keepOriginalOutcome() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtKeyProvider keyProvider = new JwtKeyProvider(new JwtKeyProperties(SignatureAlgorithm.HS256, null, List.of()), SECRET);
+        JwtService service = createService(keyProvider, 60_000L, meterRegistry);
+        String expired = createService(SECRET, -1_000L).generateToken(user);
+        String foreign = createService("another_secret_code_that_is_long_enough_for_hs256", 60_000L).generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> service.verify(expired));
+        assertThrows(SignatureException.class, () -> service.verify(foreign));
+        InvalidTokenException repeatedExpired = assertThrows(InvalidTokenException.class, () -> service.verify(expired));
+        InvalidTokenException repeatedForeign = assertThrows(InvalidTokenException.class, () -> service.verify(foreign));
+
+        assertEquals(InvalidTokenException.Reason.EXPIRED, repeatedExpired.getReason());
+        assertEquals(InvalidTokenException.Reason.BAD_SIGNATURE, repeatedForeign.getReason());
+        assertEquals(2, meterRegistry.get("auth.token.verification").tag("outcome", "expired").timer().count());
+        assertEquals(2, meterRegistry.get("auth.token.verification").tag("outcome", "bad_signature").timer().count());
+    }
+
+    @Test
+    void testCanTrustClaims_whenDisabled_returnFalse() {
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(user));
+
+        assertFalse(jwtService.canTrustClaims(verified));
+    }
+
+    @Test
+    void testCanTrustClaims_whenFresh_returnTrue() {
+        ReflectionTestUtils.setField(jwtService, "claimsTrustEnabled", true);
+        ReflectionTestUtils.setField(jwtService, "claimsTrustMaxAge", 60L);
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(user));
+
+        assertTrue(jwtService.canTrustClaims(verified));
+    }
+
+    @Test
+    void testCanTrustClaims_whenOlderThanMaxAge_returnFalse() {
+        ReflectionTestUtils.setField(jwtService, "claimsTrustEnabled", true);
+        ReflectionTestUtils.setField(jwtService, "claimsTrustMaxAge", 60L);
+        Instant issuedAt = Instant.now().minusSeconds(120);
+        VerifiedToken verified = new VerifiedToken(null, "user1", List.of("USER"), null, issuedAt, issuedAt.plusSeconds(1200));
+
+        assertFalse(jwtService.canTrustClaims(verified));
+    }
+
+    @Test
+    void testValidateToken_whenOtherUser_returnFalse() {
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(user));
+        UserDetails other = User.withUsername("user2").password("").authorities(List.of()).build();
+
+        assertFalse(jwtService.validateToken(verified, other));
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.ex9.authservice.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenDenylistTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static VerifiedToken token(String id) {
+        return new VerifiedToken(id, "user1", List.of("USER"), null, Instant.now(), Instant.now().plusSeconds(60));
+    }
+
+    @Test
+    void testIsRevoked_afterAdd_returnTrue() {
+        TokenDenylist denylist = new TokenDenylist(10, meterRegistry);
+
+        denylist.add("jti-1", Instant.now().plusSeconds(60));
+
+        assertTrue(denylist.isRevoked(token("jti-1")));
+        assertFalse(denylist.isRevoked(token("jti-2")));
+        assertFalse(denylist.isRevoked(token(null)), "Токен без jti не может быть отозван");
+        assertEquals(1.0, meterRegistry.get("auth.token.denylist.size").gauge().value());
+    }
+
+    @Test
+    void testAdd_whenAlreadyExpired_ignore() {
+        TokenDenylist denylist = new TokenDenylist(10, meterRegistry);
+
+        denylist.add("jti-1", Instant.now().minusSeconds(1));
+
+        assertFalse(denylist.isRevoked(token("jti-1")));
+        assertEquals(0, denylist.size());
+    }
+
+    @Test
+    void testAdd_whenOverCapacity_keepAllRevoked() {
+        TokenDenylist denylist = new TokenDenylist(16, meterRegistry);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            denylist.add(id, Instant.now().plusSeconds(60));
+        }
+
+        for (String id : ids) {
+            assertTrue(denylist.isRevoked(token(id)), "Токен " + id + " потерян после перестроения фильтра");
+        }
+        long falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (denylist.isRevoked(token(UUID.randomUUID().toString()))) {
+                falsePositives++;
+            }
+        }
+        assertEquals(0, falsePositives, "Хеш-таблица должна отсекать ложные срабатывания фильтра");
+    }
+
+    @Test
+    void testPurgeExpired_removeOnlyExpired() {
+        TokenDenylist denylist = new TokenDenylist(10, meterRegistry);
+        Instant now = Instant.now();
+        denylist.add("expiring", now.plusSeconds(1));
+        denylist.add("active", now.plusSeconds(60));
+
+        int removed = denylist.purgeExpired(now.plusSeconds(2));
+
+        assertEquals(1, removed);
+        assertFalse(denylist.isRevoked(token("expiring")));
+        assertTrue(denylist.isRevoked(token("active")));
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.ex9.authservice.security.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static VerifiedToken token(Instant expiresAt) {
+        return new VerifiedToken(null, "user1", List.of("USER"), null, Instant.now(), expiresAt);
+    }
+
+    @Test
+    void testGetOrVerify_whenRepeated_verifyOnce() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> verifier = t -> {
+            calls.incrementAndGet();
+            return token(Instant.now().plusSeconds(60));
+        };
+
+        VerifiedToken first = cache.getOrVerify("a.b.c", verifier);
+        VerifiedToken second = cache.getOrVerify("a.b.c", verifier);
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testGetOrVerify_whenExpired_verifyAgain() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> verifier = t -> {
+            calls.incrementAndGet();
+            return token(Instant.now().minusSeconds(1));
+        };
+
+        cache.getOrVerify("a.b.c", verifier);
+        cache.getOrVerify("a.b.c", verifier);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testGetOrVerify_whenVerifierFails_rejectRepeatWithoutVerification() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> verifier = t -> {
+            calls.incrementAndGet();
+            throw new ExpiredJwtException(null, null, "expired");
+        };
+
+        assertThrows(ExpiredJwtException.class, () -> cache.getOrVerify("bad", verifier));
+        InvalidTokenException repeated = assertThrows(InvalidTokenException.class, () -> cache.getOrVerify("bad", verifier));
+
+        assertEquals(1, calls.get(), "Повторно предъявленный плохой токен не должен проверяться заново");
+        assertEquals(InvalidTokenException.Reason.EXPIRED, repeated.getReason());
+        assertEquals(0, repeated.getStackTrace().length, "Исключение отказа не должно строить стек");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.rejected-tokens").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testInvalidateAll_forgetRejectedTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> verifier = t -> {
+            calls.incrementAndGet();
+            throw new MalformedJwtException("bad");
+        };
+        assertThrows(MalformedJwtException.class, () -> cache.getOrVerify("bad", verifier));
+
+        cache.invalidateAll();
+
+        assertThrows(MalformedJwtException.class, () -> cache.getOrVerify("bad", verifier));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testGetOrVerify_whenDisabled_alwaysVerify() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 10, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> verifier = t -> {
+            calls.incrementAndGet();
+            return token(Instant.now().plusSeconds(60));
+        };
+
+        cache.getOrVerify("a.b.c", verifier);
+        cache.getOrVerify("a.b.c", verifier);
+
+        assertEquals(2, calls.get());
+    }
+
+}
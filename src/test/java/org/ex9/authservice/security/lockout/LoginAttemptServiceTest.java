@@ -0,0 +1,156 @@
+package org.ex9.authservice.security.lockout;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ex9.authservice.exception.RateLimitExceededException;
+import org.ex9.authservice.repository.LoginLockoutRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAttemptServiceTest {
+
+    @Mock
+    private LoginLockoutRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong now = new AtomicLong(Instant.parse("2026-10-01T12:00:00Z").toEpochMilli());
+
+    private LoginAttemptService service(boolean persistent) {
+        LoginLockoutProperties properties = new LoginLockoutProperties(true, 1000, Duration.ofMinutes(15), 3,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), 10, Duration.ofMinutes(15),
+                new LoginLockoutProperties.Persistence(persistent, Duration.ofSeconds(30)));
+        return new LoginAttemptService(properties, repository, meterRegistry, now::get);
+    }
+
+    private void fail(LoginAttemptService service, String login, int times) {
+        for (int i = 0; i < times; i++) {
+            service.recordFailure(login);
+        }
+    }
+
+    @Test
+    void testCheckAllowed_afterFreeAttempts_delayDoubles() {
+        LoginAttemptService service = service(false);
+        fail(service, "user1", 3);
+        assertDoesNotThrow(() -> service.checkAllowed("user1"), "Первые неудачи не должны задерживать вход");
+
+        service.recordFailure("user1");
+        assertEquals(1, assertThrows(RateLimitExceededException.class, () -> service.checkAllowed("user1")).getRetryAfterSeconds());
+
+        now.addAndGet(1000);
+        service.recordFailure("user1");
+        assertEquals(2, assertThrows(RateLimitExceededException.class, () -> service.checkAllowed("user1")).getRetryAfterSeconds());
+        assertDoesNotThrow(() -> service.checkAllowed("user2"), "Задержка не должна влиять на другие логины");
+    }
+
+    @Test
+    void testCheckAllowed_afterThreshold_lockLogin() {
+        LoginAttemptService service = service(false);
+        fail(service, "user1", 10);
+
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class, () -> service.checkAllowed("user1"));
+
+        assertEquals(Duration.ofMinutes(15).toSeconds(), exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("auth.signin.lockouts").counter().count());
+        assertEquals(1.0, meterRegistry.get("auth.signin.blocked").counter().count());
+        now.addAndGet(Duration.ofMinutes(15).toMillis() + 1);
+        assertDoesNotThrow(() -> service.checkAllowed("user1"), "Блокировка должна сниматься по истечении срока");
+    }
+
+    @Test
+    void testRecordFailure_whenFailuresPassThresholdAfterLockout_countNewLockout() {
+        LoginAttemptService service = service(false);
+        fail(service, "user1", 10);
+        now.addAndGet(Duration.ofMinutes(15).toMillis());
+        assertDoesNotThrow(() -> service.checkAllowed("user1"));
+
+        fail(service, "user1", 3);
+
+        assertThrows(RateLimitExceededException.class, () -> service.checkAllowed("user1"));
+        assertEquals(2.0, meterRegistry.get("auth.signin.lockouts").counter().count(),
+                "Повторная блокировка сверх порога должна учитываться один раз");
+    }
+
+    @Test
+    void testRecordFailure_slidingWindowForgetsOldFailures() {
+        LoginAttemptService service = service(false);
+        fail(service, "user1", 3);
+
+        now.addAndGet(Duration.ofMinutes(25).toMillis());
+        service.recordFailure("user1");
+        assertDoesNotThrow(() -> service.checkAllowed("user1"), "Через 25 минут от прошлых неудач учитывается треть");
+
+        now.addAndGet(Duration.ofMinutes(30).toMillis());
+        fail(service, "user1", 3);
+        assertDoesNotThrow(() -> service.checkAllowed("user1"), "Неудачи старше двух окон не учитываются");
+    }
+
+    @Test
+    void testRecordSuccess_resetCounter() {
+        LoginAttemptService service = service(false);
+        fail(service, "user1", 3);
+
+        service.recordSuccess("user1");
+        service.recordFailure("user1");
+
+        assertDoesNotThrow(() -> service.checkAllowed("user1"));
+    }
+
+    @Test
+    void testFlush_writeChangedCountersInOneBatch() {
+        LoginAttemptService service = service(true);
+        fail(service, "user1", 10);
+        fail(service, "user2", 1);
+        service.recordSuccess("user2");
+
+        service.flush();
+        service.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LoginLockoutRepository.Row>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).upsertAll(rows.capture());
+        assertEquals(1, rows.getAllValues().get(0).size());
+        LoginLockoutRepository.Row row = rows.getAllValues().get(0).get(0);
+        assertEquals("user1", row.login());
+        assertEquals(10, row.currentFailures());
+        assertEquals(Instant.ofEpochMilli(now.get()).plus(Duration.ofMinutes(15)), row.blockedUntil());
+        verify(repository).deleteAll(List.of("user2"));
+        assertTrue(rows.getAllValues().get(1).isEmpty(), "Повторная запись без изменений не должна ничего писать");
+    }
+
+    @Test
+    void testLoad_restoreLockoutAfterRestart() {
+        Instant blockedUntil = Instant.ofEpochMilli(now.get()).plus(Duration.ofMinutes(5));
+        when(repository.findActive(any(), any())).thenReturn(List.of(
+                new LoginLockoutRepository.Row("user1", Instant.ofEpochMilli(now.get()), 0, 10, blockedUntil)));
+        LoginAttemptService service = service(true);
+
+        service.load();
+
+        assertEquals(300, assertThrows(RateLimitExceededException.class, () -> service.checkAllowed("user1")).getRetryAfterSeconds());
+    }
+
+    @Test
+    void testLoadAndFlush_whenPersistenceDisabled_skipDatabase() {
+        LoginAttemptService service = service(false);
+        fail(service, "user1", 10);
+
+        service.load();
+        service.flush();
+
+        verifyNoInteractions(repository);
+    }
+
+}
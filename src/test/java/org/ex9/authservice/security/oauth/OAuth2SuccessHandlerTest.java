@@ -7,16 +7,20 @@ import org.ex9.authservice.entity.Role;
 import org.ex9.authservice.entity.User;
 import org.ex9.authservice.exception.RoleNotFoundException;
 import org.ex9.authservice.exception.UserAlreadyExistsException;
-import org.ex9.authservice.repository.RoleRepository;
+import org.ex9.authservice.repository.UserAuthRow;
 import org.ex9.authservice.repository.UserRepository;
 import org.ex9.authservice.security.jwt.JwtService;
 import org.ex9.authservice.security.services.UserDetailsImpl;
+import org.ex9.authservice.service.RoleCatalog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -36,11 +40,14 @@ class OAuth2SuccessHandlerTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleCatalog roleCatalog;
 
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private UserCache userCache;
+
     @Mock
     private HttpServletRequest request;
 
@@ -76,15 +83,17 @@ class OAuth2SuccessHandlerTest {
                 .build();
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
-        when(roleRepository.findById("USER")).thenReturn(Optional.of(userRole));
+        when(roleCatalog.references(Set.of("USER"))).thenReturn(Set.of(userRole));
         when(userRepository.save(any(User.class))).thenReturn(newUser);
+        when(userRepository.findAuthRowsByLogin(email)).thenReturn(List.of(new UserAuthRow(null, email, null, 0, "USER")));
         when(jwtService.generateToken(any(UserDetailsImpl.class))).thenReturn(jwtToken);
 
         oAuth2SuccessHandler.onAuthenticationSuccess(request, response, authentication);
 
         verify(userRepository).findByEmail(email);
-        verify(roleRepository).findById("USER");
+        verify(roleCatalog).references(Set.of("USER"));
         verify(userRepository).save(any(User.class));
+        verify(userCache).removeUserFromCache(email);
         verify(jwtService).generateToken(any(UserDetailsImpl.class));
         verify(response).sendRedirect(eq("/login/success?token=" + jwtToken));
     }
@@ -102,15 +111,21 @@ class OAuth2SuccessHandlerTest {
                 .roles(Set.of(userRole))
                 .build();
 
+        SimpleGrantedAuthority admin = new SimpleGrantedAuthority("ADMIN");
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(existingUser));
+        when(userRepository.findAuthRowsByLogin(email)).thenReturn(List.of(new UserAuthRow(null, email, null, 3, "ADMIN")));
+        when(roleCatalog.authority("ADMIN")).thenReturn(admin);
         when(jwtService.generateToken(any(UserDetailsImpl.class))).thenReturn(jwtToken);
 
         oAuth2SuccessHandler.onAuthenticationSuccess(request, response, authentication);
 
         verify(userRepository).findByEmail(email);
-        verify(roleRepository, never()).findById(anyString());
+        verify(roleCatalog, never()).references(any());
         verify(userRepository, never()).save(any(User.class));
-        verify(jwtService).generateToken(any(UserDetailsImpl.class));
+        ArgumentCaptor<UserDetailsImpl> captor = ArgumentCaptor.forClass(UserDetailsImpl.class);
+        verify(jwtService).generateToken(captor.capture());
+        assertEquals(Set.of(admin), captor.getValue().getAuthorities(), "Роли для токена должны читаться из БД, а не из сущности");
+        assertEquals(3, captor.getValue().getTokenVersion());
         verify(response).sendRedirect(eq("/login/success?token=" + jwtToken));
     }
 
@@ -133,7 +148,7 @@ class OAuth2SuccessHandlerTest {
         assertThrows(UserAlreadyExistsException.class, () ->
                 oAuth2SuccessHandler.onAuthenticationSuccess(request, response, authentication));
         verify(userRepository).findByEmail(email);
-        verify(roleRepository, never()).findById(anyString());
+        verify(roleCatalog, never()).references(any());
         verify(userRepository, never()).save(any(User.class));
         verify(jwtService, never()).generateToken(any(UserDetailsImpl.class));
         verify(response, never()).sendRedirect(anyString());
@@ -142,12 +157,12 @@ class OAuth2SuccessHandlerTest {
     @Test
     void testOnAuthenticationSuccess_roleNotFound_throwRoleNotFoundException() throws IOException {
         when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
-        when(roleRepository.findById("USER")).thenReturn(Optional.empty());
+        when(roleCatalog.references(Set.of("USER"))).thenThrow(new RoleNotFoundException("Role with id USER not found"));
 
         assertThrows(RoleNotFoundException.class, () ->
                 oAuth2SuccessHandler.onAuthenticationSuccess(request, response, authentication));
         verify(userRepository).findByEmail(email);
-        verify(roleRepository).findById("USER");
+        verify(roleCatalog).references(Set.of("USER"));
         verify(userRepository, never()).save(any(User.class));
         verify(jwtService, never()).generateToken(any(UserDetailsImpl.class));
         verify(response, never()).sendRedirect(anyString());
@@ -0,0 +1,98 @@
+package org.ex9.authservice.security.password;
+
+import org.ex9.authservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordUpgradeServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @InjectMocks
+    private PasswordUpgradeService passwordUpgradeService;
+
+    private final UserDetails user = User.withUsername("user1")
+            .password("$2a$04$oldHash")
+            .authorities("USER")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(passwordUpgradeService, "executor", (Executor) Runnable::run);
+    }
+
+    @Test
+    void testUpgradeIfNeeded_whenOutdated_saveNewHashAndEvict() {
+        when(passwordEncoder.upgradeEncoding("$2a$04$oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}$2a$12$newHash");
+        when(userRepository.updatePasswordIfUnchanged("user1", "$2a$04$oldHash", "{bcrypt}$2a$12$newHash")).thenReturn(1);
+
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+
+        verify(userRepository).updatePasswordIfUnchanged("user1", "$2a$04$oldHash", "{bcrypt}$2a$12$newHash");
+        verify(userCache).removeUserFromCache("user1");
+    }
+
+    @Test
+    void testUpgradeIfNeeded_whenPasswordChangedConcurrently_keepCache() {
+        when(passwordEncoder.upgradeEncoding("$2a$04$oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}$2a$12$newHash");
+        when(userRepository.updatePasswordIfUnchanged(any(), any(), any())).thenReturn(0);
+
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+
+        verify(userCache, never()).removeUserFromCache(any());
+    }
+
+    @Test
+    void testUpgradeIfNeeded_whenCurrent_doNothing() {
+        when(passwordEncoder.upgradeEncoding("$2a$04$oldHash")).thenReturn(false);
+
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+
+        verify(passwordEncoder, never()).encode(any());
+        verifyNoInteractions(userRepository, userCache);
+    }
+
+    @Test
+    void testDelegatingEncoder_upgradesLegacyAndWeakHashes() {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(6)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        String legacy = new BCryptPasswordEncoder(4).encode("password123");
+        String weak = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password123");
+        String current = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", legacy), "Хэш без префикса должен проверяться как BCrypt");
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertTrue(encoder.upgradeEncoding(weak));
+        assertFalse(encoder.upgradeEncoding(current));
+        assertTrue(current.startsWith("{bcrypt}$2a$06$"));
+    }
+
+}
@@ -0,0 +1,91 @@
+package org.ex9.authservice.security.services;
+
+import org.ex9.authservice.repository.UserAuthRow;
+import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.service.RoleCatalog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private RoleCatalog roleCatalog;
+
+    @InjectMocks
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void testLoadUserByUsername_whenCached_skipRepository() {
+        UserDetails cached = mock(UserDetails.class);
+        when(userCache.getUserFromCache("user1")).thenReturn(cached);
+
+        UserDetails result = userDetailsService.loadUserByUsername("user1");
+
+        assertSame(cached, result);
+        verify(userRepository, never()).findAuthRowsByLogin(any());
+    }
+
+    @Test
+    void testLoadUserByUsername_whenNotCached_loadAndPutInCache() {
+        UUID id = UUID.randomUUID();
+        GrantedAuthority user = new SimpleGrantedAuthority("USER");
+        GrantedAuthority admin = new SimpleGrantedAuthority("ADMIN");
+        when(userRepository.findAuthRowsByLogin("user1")).thenReturn(List.of(
+                new UserAuthRow(id, "user1", "hash", 0, "USER"),
+                new UserAuthRow(id, "user1", "hash", 0, "ADMIN")));
+        when(roleCatalog.authority("USER")).thenReturn(user);
+        when(roleCatalog.authority("ADMIN")).thenReturn(admin);
+
+        UserDetails result = userDetailsService.loadUserByUsername("user1");
+
+        assertEquals("user1", result.getUsername());
+        assertEquals("hash", result.getPassword());
+        assertEquals(id, ((UserDetailsImpl) result).getId());
+        assertEquals(Set.of(user, admin), Set.copyOf(result.getAuthorities()), "Права должны браться из справочника ролей");
+        verify(userRepository, times(1)).findAuthRowsByLogin("user1");
+        verify(userRepository, never()).findByLogin(any());
+        verify(userCache, times(1)).putUserInCache(result);
+    }
+
+    @Test
+    void testLoadUserByUsername_whenNotFound_throwUsernameNotFound() {
+        when(userRepository.findAuthRowsByLogin("nonexistent")).thenReturn(List.of());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nonexistent"));
+        verify(userCache, never()).putUserInCache(any());
+    }
+
+    @Test
+    void testLoadUserByUsername_whenNoRoles_returnNoAuthorities() {
+        when(userRepository.findAuthRowsByLogin("user1")).thenReturn(List.of(new UserAuthRow(UUID.randomUUID(), "user1", "hash", 0, null)));
+
+        UserDetails result = userDetailsService.loadUserByUsername("user1");
+
+        assertTrue(result.getAuthorities().isEmpty());
+        verifyNoInteractions(roleCatalog);
+    }
+
+}
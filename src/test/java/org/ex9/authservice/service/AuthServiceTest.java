@@ -1,29 +1,36 @@
 package org.ex9.authservice.service;
 
+import org.ex9.authservice.dto.RefreshRequestDto;
 import org.ex9.authservice.dto.SignInRequestDto;
 import org.ex9.authservice.dto.SignUpRequestDto;
+import org.ex9.authservice.dto.TokenResponseDto;
 import org.ex9.authservice.entity.Role;
 import org.ex9.authservice.entity.User;
+import org.ex9.authservice.exception.InvalidRefreshTokenException;
 import org.ex9.authservice.exception.RoleNotFoundException;
 import org.ex9.authservice.exception.UserAlreadyExistsException;
-import org.ex9.authservice.repository.RoleRepository;
 import org.ex9.authservice.repository.UserRepository;
 import org.ex9.authservice.security.jwt.JwtService;
+import org.ex9.authservice.security.lockout.LoginAttemptService;
+import org.ex9.authservice.security.password.PasswordUpgradeService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,7 +45,7 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleCatalog roleCatalog;
 
     @Mock
     private PasswordEncoder passwordEncoder;
@@ -46,9 +53,26 @@ class AuthServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
     @InjectMocks
     private AuthService authService;
 
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key", new SQLException(), constraintName));
+    }
+
     @Test
     void testSignUp_success() {
         SignUpRequestDto request = new SignUpRequestDto("user1", "password123","user1@example.com");
@@ -56,41 +80,32 @@ class AuthServiceTest {
         Role role = new Role();
         role.setId("USER");
 
-        User savedUser = User.builder()
-                .id(UUID.randomUUID())
-                .login("user1")
-                .email("user1@example.com")
-                .password("$2a$10$hashedPassword")
-                .createDate(LocalDate.now())
-                .roles(Set.of(role))
-                .build();
-
-        when(userRepository.existsByLogin("user1")).thenReturn(false);
-        when(userRepository.existsByEmail("user1@example.com")).thenReturn(false);
-        when(roleRepository.findById("USER")).thenReturn(Optional.of(role));
+        when(roleCatalog.references(Set.of("USER"))).thenReturn(Set.of(role));
         when(passwordEncoder.encode("password123")).thenReturn("$2a$10$hashedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         authService.signUp(request);
 
-        verify(userRepository, times(1)).existsByLogin("user1");
-        verify(userRepository, times(1)).existsByEmail("user1@example.com");
-        verify(roleRepository, times(1)).findById("USER");
+        verify(roleCatalog, times(1)).references(Set.of("USER"));
         verify(passwordEncoder, times(1)).encode("password123");
-        verify(userRepository, times(1)).save(argThat(user ->
+        verify(userRepository, times(1)).saveAndFlush(argThat(user ->
                 user.getLogin().equals("user1") &&
                         user.getEmail().equals("user1@example.com") &&
                         user.getPassword().equals("$2a$10$hashedPassword") &&
                         user.getCreateDate().equals(LocalDate.now()) &&
                         user.getRoles().equals(Set.of(role))
         ));
+        verify(userRepository, never()).existsByLogin(any());
+        verify(userRepository, never()).existsByEmail(any());
+        verify(userCache, times(1)).removeUserFromCache("user1");
     }
 
     @Test
     void testSignUp_loginAlreadyExists() {
-        SignUpRequestDto request = new SignUpRequestDto("user1", "user1@example.com", "password123");
+        SignUpRequestDto request = new SignUpRequestDto("user1", "password123", "user1@example.com");
 
-        when(userRepository.existsByLogin("user1")).thenReturn(true);
+        when(roleCatalog.references(Set.of("USER"))).thenReturn(Set.of(new Role()));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation("users_login_key"));
 
         UserAlreadyExistsException exception = assertThrows(
                 UserAlreadyExistsException.class,
@@ -98,54 +113,41 @@ class AuthServiceTest {
                 "Ожидалось исключение UserAlreadyExistsException"
         );
 
-        Role role = new Role();
-        role.setId("USER");
-
-        User user = User.builder()
-                .login(request.getLogin())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .createDate(LocalDate.now())
-                .roles(Set.of(role))
-                .build();
-
         assertEquals("User with login user1 already exists", exception.getMessage());
-        verify(userRepository, times(1)).existsByLogin("user1");
-        verify(userRepository, never()).existsByEmail(request.getEmail());
-        verify(roleRepository, never()).findById("USER");
-        verify(userRepository, never()).save(any());
+        verify(userCache, never()).removeUserFromCache(any());
     }
 
     @Test
     void testSignUp_emailAlreadyExists() {
         SignUpRequestDto request = new SignUpRequestDto("user1", "password123", "user1@example.com");
 
-        when(userRepository.existsByLogin("user1")).thenReturn(false);
-        when(userRepository.existsByEmail("user1@example.com")).thenReturn(true);
+        when(roleCatalog.references(Set.of("USER"))).thenReturn(Set.of(new Role()));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation("USERS_EMAIL_KEY"));
 
-        assertThrows(UserAlreadyExistsException.class, () -> authService.signUp(request));
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class, () -> authService.signUp(request));
 
-        verify(userRepository, times(1)).existsByLogin("user1");
-        verify(userRepository, times(1)).existsByEmail("user1@example.com");
-        verify(roleRepository, never()).findById("USER");
-        verify(userRepository, never()).save(any());
+        assertEquals("User with email user1@example.com already exists", exception.getMessage());
     }
 
     @Test
     void testSignUp_roleNotFound() {
         SignUpRequestDto request = new SignUpRequestDto("user1", "password123", "user1@example.com");
 
-        when(userRepository.existsByLogin("user1")).thenReturn(false);
-        when(userRepository.existsByEmail("user1@example.com")).thenReturn(false);
-        when(roleRepository.findById("USER")).thenReturn(Optional.empty());
+        when(roleCatalog.references(Set.of("USER"))).thenReturn(Set.of(new Role()));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation("fk_user_roles_role"));
 
         assertThrows(RoleNotFoundException.class, () -> authService.signUp(request));
+    }
+
+    @Test
+    void testSignUp_whenOtherConstraintViolated_rethrow() {
+        SignUpRequestDto request = new SignUpRequestDto("user1", "password123", "user1@example.com");
+        DataIntegrityViolationException violation = violation("users_pkey");
+
+        when(roleCatalog.references(Set.of("USER"))).thenReturn(Set.of(new Role()));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
 
-        verify(userRepository, times(1)).existsByLogin("user1");
-        verify(userRepository, times(1)).existsByEmail("user1@example.com");
-        verify(roleRepository, times(1)).findById("USER");
-        verify(passwordEncoder, never()).encode(any());
-        verify(userRepository, never()).save(any());
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> authService.signUp(request)));
     }
 
     @Test
@@ -158,14 +160,34 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(jwtService.generateToken(userDetails)).thenReturn("jwt-token");
+        when(jwtService.getExpiresIn()).thenReturn(1200L);
+        when(refreshTokenService.issue(userDetails)).thenReturn("refresh-token");
 
-        String token = authService.signIn(request);
+        TokenResponseDto tokens = authService.signIn(request);
 
-        assertEquals("jwt-token", token);
+        assertEquals("jwt-token", tokens.getAccessToken());
+        assertEquals("refresh-token", tokens.getRefreshToken());
+        assertEquals(1200L, tokens.getExpiresIn());
         verify(authenticationManager, times(1)).authenticate(
                 argThat(auth -> auth.getPrincipal().equals("user1") && auth.getCredentials().equals("password123"))
         );
         verify(jwtService, times(1)).generateToken(userDetails);
+        verify(passwordUpgradeService, times(1)).upgradeIfNeeded(userDetails, "password123");
+        verify(loginAttemptService, times(1)).recordSuccess("user1");
+        verify(loginAttemptService, never()).recordFailure(any());
+    }
+
+    @Test
+    void testSignIn_whenBadCredentials_recordFailure() {
+        SignInRequestDto request = new SignInRequestDto("user1", "wrong-password");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(BadCredentialsException.class, () -> authService.signIn(request));
+
+        verify(loginAttemptService, times(1)).recordFailure("user1");
+        verify(loginAttemptService, never()).recordSuccess(any());
+        verify(refreshTokenService, never()).issue(any());
     }
 
     @Test
@@ -185,6 +207,32 @@ class AuthServiceTest {
                 argThat(auth -> auth.getPrincipal().equals("user1") && auth.getCredentials().equals("wrong-password"))
         );
         verify(jwtService, never()).generateToken(any());
+        verify(refreshTokenService, never()).issue(any());
+        verifyNoInteractions(passwordUpgradeService);
+    }
+
+    @Test
+    void testRefresh_success() {
+        UserDetails userDetails = mock(UserDetails.class);
+        when(refreshTokenService.rotate("old-refresh"))
+                .thenReturn(new RefreshTokenService.Rotation(userDetails, "new-refresh"));
+        when(jwtService.generateToken(userDetails)).thenReturn("jwt-token");
+
+        TokenResponseDto tokens = authService.refresh(new RefreshRequestDto("old-refresh"));
+
+        assertEquals("jwt-token", tokens.getAccessToken());
+        assertEquals("new-refresh", tokens.getRefreshToken());
+        verifyNoInteractions(authenticationManager, passwordEncoder);
+    }
+
+    @Test
+    void testRefresh_whenInvalid_throwInvalidRefreshTokenException() {
+        when(refreshTokenService.rotate("bad")).thenThrow(new InvalidRefreshTokenException("Invalid refresh token"));
+
+        assertThrows(InvalidRefreshTokenException.class,
+                () -> authService.refresh(new RefreshRequestDto("bad")),
+                "Ожидалось исключение InvalidRefreshTokenException");
+        verify(jwtService, never()).generateToken(any());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package org.ex9.authservice.service;
+
+import org.ex9.authservice.entity.RefreshToken;
+import org.ex9.authservice.entity.User;
+import org.ex9.authservice.exception.InvalidRefreshTokenException;
+import org.ex9.authservice.repository.RefreshTokenRepository;
+import org.ex9.authservice.repository.UserAuthRow;
+import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleCatalog roleCatalog;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private final User user = User.builder()
+            .id(UUID.randomUUID())
+            .login("user1")
+            .password("hash")
+            .roles(Set.of())
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "expiration", 60_000L);
+    }
+
+    private RefreshToken saved;
+
+    private String issue() {
+        when(userRepository.getReferenceById(user.getId())).thenReturn(user);
+        String raw = refreshTokenService.issue(new UserDetailsImpl(user));
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        saved = captor.getValue();
+        saved.setId(UUID.randomUUID());
+        assertNotEquals(raw, saved.getTokenHash(), "В БД должен храниться хэш, а не сам токен");
+        when(refreshTokenRepository.findByTokenHash(saved.getTokenHash())).thenReturn(Optional.of(saved));
+        return raw;
+    }
+
+    @Test
+    void testRotate_success_keepFamily() {
+        String raw = issue();
+        when(refreshTokenRepository.markUsed(eq(saved.getId()), any(Instant.class))).thenReturn(1);
+        SimpleGrantedAuthority admin = new SimpleGrantedAuthority("ADMIN");
+        when(userRepository.findAuthRowsByLogin("user1")).thenReturn(List.of(new UserAuthRow(user.getId(), "user1", "hash", 4, "ADMIN")));
+        when(roleCatalog.authority("ADMIN")).thenReturn(admin);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(raw);
+
+        assertEquals("user1", rotation.userDetails().getUsername());
+        assertEquals(Set.of(admin), rotation.userDetails().getAuthorities(), "Роли для access-токена должны читаться из БД, а не из сущности");
+        assertEquals(4, ((UserDetailsImpl) rotation.userDetails()).getTokenVersion());
+        assertNotEquals(raw, rotation.refreshToken());
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(captor.capture());
+        assertEquals(saved.getFamilyId(), captor.getValue().getFamilyId());
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void testRotate_whenAlreadyUsed_revokeFamily() {
+        String raw = issue();
+        saved.setUsedAt(Instant.now());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(raw),
+                "Ожидалось исключение InvalidRefreshTokenException");
+        verify(refreshTokenRepository).revokeFamily(saved.getFamilyId());
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+
+    @Test
+    void testRotate_whenConcurrentlyUsed_revokeFamily() {
+        String raw = issue();
+        when(refreshTokenRepository.markUsed(eq(saved.getId()), any(Instant.class))).thenReturn(0);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(raw));
+        verify(refreshTokenRepository).revokeFamily(saved.getFamilyId());
+    }
+
+    @Test
+    void testRotate_whenExpired_throwInvalidRefreshTokenException() {
+        String raw = issue();
+        saved.setExpiresAt(Instant.now().minusSeconds(1));
+        when(refreshTokenRepository.markUsed(eq(saved.getId()), any(Instant.class))).thenReturn(1);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(raw));
+        verify(refreshTokenRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testRotate_whenUserDeleted_throwInvalidRefreshTokenException() {
+        String raw = issue();
+        when(refreshTokenRepository.markUsed(eq(saved.getId()), any(Instant.class))).thenReturn(1);
+        when(userRepository.findAuthRowsByLogin("user1")).thenReturn(List.of());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(raw));
+        verify(refreshTokenRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testRotate_whenUnknown_throwInvalidRefreshTokenException() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void testRevoke_revokeFamily() {
+        String raw = issue();
+
+        refreshTokenService.revoke(raw);
+
+        verify(refreshTokenRepository).revokeFamily(saved.getFamilyId());
+    }
+
+    @Test
+    void testRevoke_whenUnknown_doNothing() {
+        refreshTokenService.revoke("unknown");
+
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.ex9.authservice.service;
+
+import org.ex9.authservice.entity.Role;
+import org.ex9.authservice.exception.RoleNotFoundException;
+import org.ex9.authservice.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoleCatalogTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @InjectMocks
+    private RoleCatalog roleCatalog;
+
+    private static Role role(String id, String name) {
+        return Role.builder().id(id).name(name).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(roleRepository.findAll(any(Sort.class))).thenReturn(List.of(role("ADMIN", "Administrator"), role("USER", "User")));
+        roleCatalog.refresh();
+    }
+
+    @Test
+    void testAuthority_returnSharedInstance() {
+        GrantedAuthority first = roleCatalog.authority("USER");
+
+        assertSame(first, roleCatalog.authority("USER"), "Право роли должно браться из справочника");
+        assertEquals("USER", first.getAuthority());
+        assertEquals("UNKNOWN", roleCatalog.authority("UNKNOWN").getAuthority());
+    }
+
+    @Test
+    void testReferences_useProxiesWithoutLoading() {
+        Role reference = new Role();
+        when(roleRepository.getReferenceById("USER")).thenReturn(reference);
+
+        assertEquals(Set.of(reference), roleCatalog.references(List.of("USER")));
+        verify(roleRepository, never()).findById(any());
+        verify(roleRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testReferences_roleNotFound() {
+        RoleNotFoundException exception = assertThrows(
+                RoleNotFoundException.class,
+                () -> roleCatalog.references(List.of("USER", "INVALID_ROLE")),
+                "Ожидалось исключение RoleNotFoundException"
+        );
+
+        assertEquals("Role with id INVALID_ROLE not found", exception.getMessage());
+        verify(roleRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    void testRefresh_whenUnchanged_keepSnapshot() {
+        String eTag = roleCatalog.getETag();
+        GrantedAuthority authority = roleCatalog.authority("USER");
+        when(roleRepository.findAll(any(Sort.class))).thenReturn(List.of(role("ADMIN", "Administrator"), role("USER", "User")));
+
+        roleCatalog.refresh();
+
+        assertEquals(eTag, roleCatalog.getETag());
+        assertSame(authority, roleCatalog.authority("USER"), "Неизменённый справочник не должен пересоздаваться");
+    }
+
+    @Test
+    void testRefresh_whenChanged_publishNewSnapshot() {
+        String eTag = roleCatalog.getETag();
+        when(roleRepository.findAll(any(Sort.class))).thenReturn(List.of(role("ADMIN", "Administrator"), role("GUEST", "Guest")));
+
+        roleCatalog.refresh();
+
+        assertNotEquals(eTag, roleCatalog.getETag());
+        assertTrue(roleCatalog.contains("GUEST"));
+        assertFalse(roleCatalog.contains("USER"));
+        assertEquals(List.of("ADMIN", "GUEST"), roleCatalog.getRoles().stream().map(Role::getId).toList());
+    }
+
+}
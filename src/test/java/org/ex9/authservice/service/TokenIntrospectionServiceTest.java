@@ -0,0 +1,126 @@
+package org.ex9.authservice.service;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ex9.authservice.dto.IntrospectionResponseDto;
+import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.security.jwt.JwtKeyProperties;
+import org.ex9.authservice.security.jwt.JwtKeyProvider;
+import org.ex9.authservice.security.jwt.JwtService;
+import org.ex9.authservice.security.jwt.TokenDenylist;
+import org.ex9.authservice.security.jwt.VerifiedToken;
+import org.ex9.authservice.security.jwt.VerifiedTokenCache;
+import org.ex9.authservice.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenIntrospectionServiceTest {
+
+    private JwtService jwtService;
+
+    private TokenDenylist denylist;
+
+    private UserRepository userRepository;
+
+    private TokenVersionService tokenVersionService;
+
+    private TokenIntrospectionService introspectionService;
+
+    private final UserDetails user = User.withUsername("user1")
+            .password("")
+            .authorities(new SimpleGrantedAuthority("USER"))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyProvider keyProvider = new JwtKeyProvider(new JwtKeyProperties(SignatureAlgorithm.HS256, null, List.of()),
+                "test_secret_code_that_is_long_enough_for_hs256");
+        jwtService = new JwtService(new VerifiedTokenCache(true, 100, new SimpleMeterRegistry()), keyProvider, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "expiration", 60_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        denylist = new TokenDenylist(100, new SimpleMeterRegistry());
+        userRepository = mock(UserRepository.class);
+        tokenVersionService = new TokenVersionService(userRepository, 100, Duration.ofSeconds(10), new SimpleMeterRegistry());
+        introspectionService = new TokenIntrospectionService(jwtService, denylist, tokenVersionService);
+    }
+
+    @Test
+    void testIntrospect_whenValid_returnClaims() {
+        IntrospectionResponseDto result = introspectionService.introspect(jwtService.generateToken(user));
+
+        assertTrue(result.isActive());
+        assertEquals("user1", result.getSub());
+        assertEquals(List.of("USER"), result.getRoles());
+        assertNotNull(result.getIat());
+        assertTrue(result.getExp() > result.getIat());
+    }
+
+    @Test
+    void testIntrospect_whenInvalid_returnInactive() {
+        assertFalse(introspectionService.introspect("not.a.token").isActive());
+        assertFalse(introspectionService.introspect("").isActive());
+        assertNull(introspectionService.introspect("garbage").getSub());
+    }
+
+    @Test
+    void testIntrospect_whenInactiveResultModified_doNotAffectOtherResults() {
+        IntrospectionResponseDto first = introspectionService.introspect("garbage");
+        first.setSub("user1");
+
+        assertNull(introspectionService.introspect("garbage").getSub(), "Результаты для неактивных токенов не должны быть общими");
+    }
+
+    @Test
+    void testIntrospect_whenRevoked_returnInactive() {
+        String token = jwtService.generateToken(user);
+        VerifiedToken verified = jwtService.verify(token);
+        denylist.add(verified.id(), verified.expiresAt());
+
+        assertFalse(introspectionService.introspect(token).isActive(), "Отозванный токен не должен быть активным");
+        assertTrue(introspectionService.introspect(jwtService.generateToken(user)).isActive());
+    }
+
+    @Test
+    void testIntrospect_whenTokenVersionOutdated_returnInactive() {
+        UserDetailsImpl versioned = new UserDetailsImpl(UUID.randomUUID(), "user2", "", Set.of(new SimpleGrantedAuthority("USER")), 3);
+        String token = jwtService.generateToken(versioned);
+
+        when(userRepository.findTokenVersionByLogin("user2")).thenReturn(Optional.of(3L));
+        assertTrue(introspectionService.introspect(token).isActive());
+
+        when(userRepository.findTokenVersionByLogin("user2")).thenReturn(Optional.of(4L));
+        tokenVersionService.evict(List.of("user2"));
+        assertFalse(introspectionService.introspect(token).isActive(), "Токен с устаревшей версией не должен быть активным");
+    }
+
+    @Test
+    void testIntrospectBatch_keepOrder() {
+        String valid = jwtService.generateToken(user);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tokens.add(i % 2 == 0 ? valid : "bad-" + i);
+        }
+
+        List<IntrospectionResponseDto> results = introspectionService.introspectBatch(tokens);
+
+        assertEquals(tokens.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i % 2 == 0, results.get(i).isActive(), "Результат не совпадает с токеном №" + i);
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.ex9.authservice.service;
+
+import io.jsonwebtoken.MalformedJwtException;
+import org.ex9.authservice.entity.RevokedToken;
+import org.ex9.authservice.entity.User;
+import org.ex9.authservice.exception.UserNotFoundException;
+import org.ex9.authservice.repository.RevokedTokenRepository;
+import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.repository.UserRoleBulkRepository;
+import org.ex9.authservice.security.jwt.JwtService;
+import org.ex9.authservice.security.jwt.TokenDenylist;
+import org.ex9.authservice.security.jwt.VerifiedToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserCache;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private TokenDenylist denylist;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserRoleBulkRepository userRoleBulkRepository;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private UserCache userCache;
+
+    @InjectMocks
+    private TokenRevocationService revocationService;
+
+    private final Instant expiresAt = Instant.now().plusSeconds(600);
+
+    @Test
+    void testRevoke_persistAndAddToDenylist() {
+        when(jwtService.verify("token")).thenReturn(new VerifiedToken("jti-1", "user1", List.of("USER"), null, Instant.now(), expiresAt));
+
+        assertTrue(revocationService.revoke("token"));
+
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals("jti-1", captor.getValue().getJti());
+        assertEquals("user1", captor.getValue().getSubject());
+        assertEquals(expiresAt, captor.getValue().getExpiresAt());
+        verify(denylist).add("jti-1", expiresAt);
+    }
+
+    @Test
+    void testRevoke_whenInvalidOrWithoutId_returnFalse() {
+        when(jwtService.verify("bad")).thenThrow(new MalformedJwtException("bad"));
+        when(jwtService.verify("legacy")).thenReturn(new VerifiedToken(null, "user1", List.of("USER"), null, Instant.now(), expiresAt));
+
+        assertFalse(revocationService.revoke("bad"));
+        assertFalse(revocationService.revoke("legacy"));
+        verifyNoInteractions(revokedTokenRepository, denylist);
+    }
+
+    @Test
+    void testLogout_revokeAccessAndRefreshFamily() {
+        when(jwtService.verify("token")).thenReturn(new VerifiedToken("jti-1", "user1", List.of("USER"), null, Instant.now(), expiresAt));
+
+        revocationService.logout("token", "refresh");
+
+        verify(denylist).add("jti-1", expiresAt);
+        verify(refreshTokenService).revoke("refresh");
+    }
+
+    @Test
+    void testSync_loadRevokedByOtherInstances() {
+        when(revokedTokenRepository.findActiveRevokedSince(any(), any())).thenReturn(List.of(
+                new RevokedToken("jti-1", "user1", expiresAt, Instant.now())));
+
+        revocationService.sync();
+
+        verify(denylist).add("jti-1", expiresAt);
+    }
+
+    @Test
+    void testRevokeAllSessions_bumpVersionAndRevokeRefreshTokens() {
+        User user = User.builder().id(UUID.randomUUID()).login("user1").tokenVersion(2).build();
+        when(userRepository.findByLogin("user1")).thenReturn(Optional.of(user));
+
+        revocationService.revokeAllSessions("user1");
+
+        verify(userRoleBulkRepository).incrementTokenVersion(user);
+        verify(userRepository, never()).save(any());
+        verify(refreshTokenService).revokeAll(user);
+        verify(userCache).removeUserFromCache("user1");
+        verify(tokenVersionService).evict(List.of("user1"));
+    }
+
+    @Test
+    void testRevokeAllSessions_whenUserNotFound_throwUserNotFoundException() {
+        when(userRepository.findByLogin("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> revocationService.revokeAllSessions("ghost"));
+        verifyNoInteractions(refreshTokenService, userRoleBulkRepository, tokenVersionService);
+    }
+
+}
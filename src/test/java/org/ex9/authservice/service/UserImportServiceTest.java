@@ -0,0 +1,236 @@
+package org.ex9.authservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.ex9.authservice.dto.UserImportEventDto;
+import org.ex9.authservice.entity.Role;
+import org.ex9.authservice.exception.InvalidImportFormatException;
+import org.ex9.authservice.repository.RoleRepository;
+import org.ex9.authservice.repository.UserImportRepository;
+import org.ex9.authservice.security.password.PasswordHashingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    private static final String HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoO5p3IWvz2qNfV3v4b5E0M5Zp1Y2w3k1a";
+
+    @Mock
+    private UserImportRepository userImportRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private UserImportService service;
+
+    private final List<UserImportEventDto> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(roleRepository.findAll(any(Sort.class))).thenReturn(List.of(role("ADMIN"), role("USER")));
+        RoleCatalog roleCatalog = new RoleCatalog(roleRepository);
+        roleCatalog.refresh();
+        service = new UserImportService(userImportRepository, roleCatalog, passwordEncoder,
+                new PasswordHashingProperties(2, 64, 1, 10, 0.5), transactionTemplate, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        lenient().when(userImportRepository.findExisting(anyCollection(), anyCollection()))
+                .thenReturn(new UserImportRepository.Existing(Set.of(), Set.of()));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static Role role(String id) {
+        Role role = new Role();
+        role.setId(id);
+        return role;
+    }
+
+    private UserImportEventDto run(UserImportReader.Format format, String body) throws Exception {
+        return service.importUsers(new StringReader(body), format, events::add);
+    }
+
+    private List<UserImportEventDto> events(String type) {
+        return events.stream().filter(e -> e.getType().equals(type)).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UserImportRepository.NewUser> inserted() {
+        ArgumentCaptor<List<UserImportRepository.NewUser>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userImportRepository, atLeastOnce()).insertAll(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    @Test
+    void testImportUsers_ndjson_insertByChunksAndReportProgress() throws Exception {
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> "{bcrypt}hash-" + invocation.getArgument(0));
+
+        UserImportEventDto summary = run(UserImportReader.Format.NDJSON, """
+                {"login":"user1","email":"user1@example.com","password":"p1"}
+                {"login":"user2","email":"user2@example.com","password":"p2","roles":["USER","ADMIN"]}
+
+                {"login":"user3","email":"user3@example.com","password":"p3"}
+                """);
+
+        assertEquals(3, summary.getProcessed());
+        assertEquals(3, summary.getImported());
+        assertEquals(0, summary.getFailed());
+        assertEquals(2, events("progress").size(), "Прогресс должен приходить после каждого пакета");
+        verify(userImportRepository, times(2)).insertAll(any());
+        List<UserImportRepository.NewUser> users = inserted();
+        assertEquals("{bcrypt}hash-p1", users.get(0).passwordHash());
+        assertEquals(Set.of("USER"), users.get(0).roles());
+        assertEquals(Set.of("USER", "ADMIN"), users.get(1).roles());
+    }
+
+    @Test
+    void testImportUsers_hashOnShareOfHashingPool() throws Exception {
+        ReflectionTestUtils.setField(service, "chunkSize", 10);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return "{bcrypt}hash";
+        });
+
+        UserImportEventDto summary = run(UserImportReader.Format.NDJSON, IntStream.range(0, 8)
+                .mapToObj(i -> "{\"login\":\"user%1$d\",\"email\":\"user%1$d@example.com\",\"password\":\"p\"}".formatted(i))
+                .collect(Collectors.joining("\n")));
+
+        assertEquals(8, summary.getImported());
+        assertEquals(1, threads.size(), "Импорт должен занимать не больше половины из двух потоков хэширования");
+    }
+
+    @Test
+    void testImportUsers_whenRolesContainNull_rejectOnlyThatRow() throws Exception {
+        UserImportEventDto summary = run(UserImportReader.Format.NDJSON, """
+                {"login":"user1","email":"user1@example.com","passwordHash":"%1$s","roles":["ADMIN",null]}
+                {"login":"user2","email":"user2@example.com","passwordHash":"%1$s","roles":["USER"," "]}
+                {"login":"user3","email":"user3@example.com","passwordHash":"%1$s","roles":["USER"]}
+                """.formatted(HASH));
+
+        assertEquals(3, summary.getProcessed());
+        assertEquals(1, summary.getImported());
+        assertEquals(2, summary.getFailed());
+        assertEquals("roles must not contain blank entries", events("error").get(0).getMessage());
+        assertEquals("user3", inserted().get(0).login());
+    }
+
+    @Test
+    void testImportUsers_csv_acceptPreHashedPasswords() throws Exception {
+        UserImportEventDto summary = run(UserImportReader.Format.CSV,
+                "login,email,passwordHash,roles\r\n"
+                        + "user1,user1@example.com," + HASH + ",\r\n"
+                        + "\"user,2\",user2@example.com,{bcrypt}" + HASH + ",USER;ADMIN\r\n");
+
+        assertEquals(2, summary.getImported());
+        List<UserImportRepository.NewUser> users = inserted();
+        assertEquals("{bcrypt}" + HASH, users.get(0).passwordHash());
+        assertEquals("user,2", users.get(1).login());
+        assertEquals("{bcrypt}" + HASH, users.get(1).passwordHash());
+        assertEquals(Set.of("USER", "ADMIN"), users.get(1).roles());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void testImportUsers_whenRowRejectedForEmail_doNotReserveItsLogin() throws Exception {
+        ReflectionTestUtils.setField(service, "chunkSize", 10);
+
+        UserImportEventDto summary = run(UserImportReader.Format.NDJSON, """
+                {"login":"user1","email":"shared@example.com","passwordHash":"%1$s"}
+                {"login":"user2","email":"shared@example.com","passwordHash":"%1$s"}
+                {"login":"user2","email":"user2@example.com","passwordHash":"%1$s"}
+                """.formatted(HASH));
+
+        assertEquals(2, summary.getImported());
+        assertEquals(1, summary.getFailed());
+        assertEquals(List.of("user1", "user2"), inserted().stream().map(UserImportRepository.NewUser::login).toList(),
+                "Логин строки, отклонённой из-за email, не должен считаться занятым");
+    }
+
+    @Test
+    void testImportUsers_reportRowErrorsWithLineNumbers() throws Exception {
+        when(userImportRepository.findExisting(anyCollection(), anyCollection()))
+                .thenReturn(new UserImportRepository.Existing(Set.of("taken"), Set.of()));
+
+        UserImportEventDto summary = run(UserImportReader.Format.NDJSON, """
+                {"login":"user1","email":"user1@example.com","passwordHash":"plain"}
+                not json
+                {"login":"user2","email":"not-an-email","passwordHash":"%1$s"}
+                {"login":"user3","email":"user3@example.com","passwordHash":"%1$s","roles":["ROOT"]}
+                {"login":"taken","email":"taken@example.com","passwordHash":"%1$s"}
+                {"login":"user4","email":"user4@example.com","passwordHash":"%1$s"}
+                """.formatted(HASH));
+
+        assertEquals(6, summary.getProcessed());
+        assertEquals(1, summary.getImported());
+        assertEquals(5, summary.getFailed());
+        List<UserImportEventDto> errors = events("error");
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), errors.stream().map(UserImportEventDto::getLine).toList());
+        assertTrue(errors.get(0).getMessage().contains("unsupported password hash"));
+        assertTrue(errors.get(1).getMessage().startsWith("malformed JSON"));
+        assertEquals("email is not valid", errors.get(2).getMessage());
+        assertEquals("unknown role ROOT", errors.get(3).getMessage());
+        assertEquals("login already exists", errors.get(4).getMessage());
+        assertEquals("user4", inserted().get(0).login());
+    }
+
+    @Test
+    void testImportUsers_whenBatchConflicts_retryRowByRow() throws Exception {
+        doThrow(new DuplicateKeyException("batch"))
+                .doNothing()
+                .doThrow(new DuplicateKeyException("row"))
+                .when(userImportRepository).insertAll(any());
+
+        UserImportEventDto summary = run(UserImportReader.Format.NDJSON, """
+                {"login":"user1","email":"user1@example.com","passwordHash":"%1$s"}
+                {"login":"user2","email":"user2@example.com","passwordHash":"%1$s"}
+                """.formatted(HASH));
+
+        assertEquals(1, summary.getImported());
+        assertEquals(1, summary.getFailed());
+        assertEquals(2L, events("error").get(0).getLine());
+        verify(userImportRepository, times(3)).insertAll(any());
+    }
+
+    @Test
+    void testImportUsers_whenCsvHeaderInvalid_throwInvalidImportFormatException() {
+        assertThrows(InvalidImportFormatException.class,
+                () -> run(UserImportReader.Format.CSV, "login,password\nuser1,p1\n"),
+                "Ожидалось исключение InvalidImportFormatException");
+        verifyNoInteractions(userImportRepository);
+    }
+
+}
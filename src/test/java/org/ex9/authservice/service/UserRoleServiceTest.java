@@ -1,24 +1,32 @@
 package org.ex9.authservice.service;
 
+import org.ex9.authservice.dto.BulkUserRoleRequestDto;
+import org.ex9.authservice.dto.BulkUserRoleResponseDto;
+import org.ex9.authservice.dto.RoleMembersResponseDto;
 import org.ex9.authservice.dto.UserRoleRequestDto;
 import org.ex9.authservice.dto.UserRoleResponseDto;
 import org.ex9.authservice.entity.Role;
 import org.ex9.authservice.entity.User;
 import org.ex9.authservice.exception.RoleNotFoundException;
 import org.ex9.authservice.exception.UserNotFoundException;
-import org.ex9.authservice.repository.RoleRepository;
+import org.ex9.authservice.repository.RoleMemberRow;
 import org.ex9.authservice.repository.UserRepository;
+import org.ex9.authservice.repository.UserRoleBulkRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.userdetails.UserCache;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,7 +39,16 @@ class UserRoleServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleCatalog roleCatalog;
+
+    @Mock
+    private UserRoleBulkRepository userRoleBulkRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
 
     @InjectMocks
     private UserRoleService userRoleService;
@@ -42,27 +59,55 @@ class UserRoleServiceTest {
         request.setUserLogin("user1");
         request.setRoles(List.of("USER", "CREDIT_USER"));
 
-        User user = User.builder()
-                .id(UUID.randomUUID())
-                .login("user1")
-                .build();
-
         Role userRole = new Role();
         userRole.setId("USER");
         Role creditUserRole = new Role();
         creditUserRole.setId("CREDIT_USER");
+        Role guestRole = new Role();
+        guestRole.setId("GUEST");
+
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .login("user1")
+                .roles(new HashSet<>(Set.of(userRole, guestRole)))
+                .build();
 
         when(userRepository.findByLogin("user1")).thenReturn(Optional.of(user));
-        when(roleRepository.findById("USER")).thenReturn(Optional.of(userRole));
-        when(roleRepository.findById("CREDIT_USER")).thenReturn(Optional.of(creditUserRole));
+        when(roleCatalog.references(List.of("USER", "CREDIT_USER"))).thenReturn(Set.of(userRole, creditUserRole));
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         userRoleService.updateUserRoles(request);
 
+        assertEquals(Set.of(userRole, creditUserRole), user.getRoles());
         verify(userRepository, times(1)).findByLogin("user1");
-        verify(roleRepository, times(1)).findById("USER");
-        verify(roleRepository, times(1)).findById("CREDIT_USER");
+        verify(roleCatalog, times(1)).references(List.of("USER", "CREDIT_USER"));
         verify(userRepository, times(1)).save(any());
+        verify(userRoleBulkRepository, times(1)).incrementTokenVersion(user);
+        verify(userCache, times(1)).removeUserFromCache("user1");
+        verify(tokenVersionService, times(1)).evict(List.of("user1"));
+    }
+
+    @Test
+    void testUpdateUserRoles_whenUnchanged_keepTokenVersion() {
+        UserRoleRequestDto request = new UserRoleRequestDto();
+        request.setUserLogin("user1");
+        request.setRoles(List.of("USER"));
+
+        Role userRole = Role.builder().id("USER").build();
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .login("user1")
+                .roles(new HashSet<>(Set.of(userRole)))
+                .tokenVersion(5)
+                .build();
+
+        when(userRepository.findByLogin("user1")).thenReturn(Optional.of(user));
+        when(roleCatalog.references(List.of("USER"))).thenReturn(Set.of(userRole));
+
+        userRoleService.updateUserRoles(request);
+
+        assertEquals(5, user.getTokenVersion(), "Без изменения ролей выданные токены должны оставаться действительными");
+        verifyNoInteractions(userRoleBulkRepository, tokenVersionService);
     }
 
     @Test
@@ -81,7 +126,7 @@ class UserRoleServiceTest {
 
         assertEquals("User with id nonexistent not found", exception.getMessage());
         verify(userRepository, times(1)).findByLogin("nonexistent");
-        verify(roleRepository, never()).findById(any());
+        verify(roleCatalog, never()).references(any());
         verify(userRepository, never()).save(any());
     }
 
@@ -96,12 +141,9 @@ class UserRoleServiceTest {
                 .login("user1")
                 .build();
 
-        Role userRole = new Role();
-        userRole.setId("USER");
-
         when(userRepository.findByLogin("user1")).thenReturn(Optional.of(user));
-        when(roleRepository.findById("USER")).thenReturn(Optional.of(userRole));
-        when(roleRepository.findById("INVALID_ROLE")).thenReturn(Optional.empty());
+        when(roleCatalog.references(List.of("USER", "INVALID_ROLE")))
+                .thenThrow(new RoleNotFoundException("Role with id INVALID_ROLE not found"));
 
         RoleNotFoundException exception = assertThrows(
                 RoleNotFoundException.class,
@@ -111,55 +153,133 @@ class UserRoleServiceTest {
 
         assertEquals("Role with id INVALID_ROLE not found", exception.getMessage());
         verify(userRepository, times(1)).findByLogin("user1");
-        verify(roleRepository, times(1)).findById("USER");
-        verify(roleRepository, times(1)).findById("INVALID_ROLE");
+        verify(roleCatalog, times(1)).references(List.of("USER", "INVALID_ROLE"));
         verify(userRepository, never()).save(any());
+        verify(userCache, never()).removeUserFromCache(any());
     }
 
     @Test
-    void testGetRolesByLogin_adminSuccess() {
-        User user = User.builder()
-                .id(UUID.randomUUID())
-                .login("user1")
-                .roles(Set.of(Role.builder().id("USER").build()))
-                .build();
+    void testUpdateRolesInBulk_success() {
+        List<String> logins = IntStream.range(0, UserRoleService.BULK_CHUNK_SIZE + 1).mapToObj(i -> "user" + i).toList();
+        List<String> firstChunk = logins.subList(0, UserRoleService.BULK_CHUNK_SIZE);
+        List<String> secondChunk = logins.subList(UserRoleService.BULK_CHUNK_SIZE, logins.size());
+        UUID assignedUser = UUID.randomUUID();
+        UUID revokedUser = UUID.randomUUID();
+
+        when(userRoleBulkRepository.findExistingLogins(firstChunk)).thenReturn(firstChunk);
+        when(userRoleBulkRepository.findExistingLogins(secondChunk)).thenReturn(List.of());
+        when(userRoleBulkRepository.assign(firstChunk, List.of("CREDIT_USER"))).thenReturn(List.of(assignedUser, revokedUser));
+        when(userRoleBulkRepository.revoke(firstChunk, List.of("GUEST"))).thenReturn(List.of(revokedUser));
+        when(userRoleBulkRepository.incrementTokenVersions(Set.of(assignedUser, revokedUser))).thenReturn(List.of("user1", "user2"));
+
+        BulkUserRoleResponseDto response = userRoleService.updateRolesInBulk(
+                new BulkUserRoleRequestDto(logins, List.of("CREDIT_USER", "CREDIT_USER"), List.of("GUEST")));
+
+        assertEquals(UserRoleService.BULK_CHUNK_SIZE, response.getMatchedUsers());
+        assertEquals(List.of("user" + UserRoleService.BULK_CHUNK_SIZE), response.getNotFound());
+        assertEquals(2, response.getAssigned());
+        assertEquals(1, response.getRevoked());
+        verify(roleCatalog, times(1)).requireAll(List.of("CREDIT_USER"));
+        verify(roleCatalog, times(1)).requireAll(List.of("GUEST"));
+        verify(userRoleBulkRepository, times(2)).assign(any(), any());
+        verify(userRoleBulkRepository, times(1)).incrementTokenVersions(any());
+        verify(userCache, times(1)).removeUserFromCache("user1");
+        verify(userCache, times(1)).removeUserFromCache("user2");
+        verifyNoMoreInteractions(userCache);
+        verify(tokenVersionService, times(1)).evict(Set.of("user1", "user2"));
+        verifyNoInteractions(userRepository);
+    }
 
-        when(userRepository.findByLogin("user1")).thenReturn(Optional.of(user));
+    @Test
+    void testUpdateRolesInBulk_whenNothingChanged_keepTokenVersions() {
+        when(userRoleBulkRepository.findExistingLogins(List.of("user1"))).thenReturn(List.of("user1"));
+        when(userRoleBulkRepository.assign(List.of("user1"), List.of("USER"))).thenReturn(List.of());
+
+        BulkUserRoleResponseDto response = userRoleService.updateRolesInBulk(
+                new BulkUserRoleRequestDto(List.of("user1"), List.of("USER"), null));
+
+        assertEquals(1, response.getMatchedUsers());
+        assertEquals(0, response.getAssigned());
+        verify(userRoleBulkRepository, never()).incrementTokenVersions(any());
+        verifyNoInteractions(userCache, tokenVersionService);
+    }
+
+    @Test
+    void testUpdateRolesInBulk_roleNotFound() {
+        doThrow(new RoleNotFoundException("Role with id INVALID_ROLE not found"))
+                .when(roleCatalog).requireAll(List.of("INVALID_ROLE"));
+
+        RoleNotFoundException exception = assertThrows(
+                RoleNotFoundException.class,
+                () -> userRoleService.updateRolesInBulk(new BulkUserRoleRequestDto(List.of("user1"), List.of("INVALID_ROLE"), null)),
+                "Ожидалось исключение RoleNotFoundException"
+        );
+
+        assertEquals("Role with id INVALID_ROLE not found", exception.getMessage());
+        verifyNoInteractions(userRoleBulkRepository, userCache, tokenVersionService);
+    }
+
+    @Test
+    void testGetRoleMembers_whenMorePages_returnNextAfter() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(userRoleBulkRepository.findMembersAfter("ADMIN", new UUID(0, 0), 3)).thenReturn(List.of(
+                new RoleMemberRow(first, "a"), new RoleMemberRow(second, "b"), new RoleMemberRow(UUID.randomUUID(), "c")));
+
+        RoleMembersResponseDto response = userRoleService.getRoleMembers("ADMIN", null, 2);
+
+        assertEquals(List.of("a", "b"), response.getLogins());
+        assertEquals(second, response.getNextAfter());
+        verify(roleCatalog, times(1)).requireAll(List.of("ADMIN"));
+    }
+
+    @Test
+    void testGetRoleMembers_whenLastPage_returnNoNextAfter() {
+        UUID after = UUID.randomUUID();
+        when(userRoleBulkRepository.findMembersAfter("ADMIN", after, 3)).thenReturn(List.of(new RoleMemberRow(UUID.randomUUID(), "c")));
+
+        RoleMembersResponseDto response = userRoleService.getRoleMembers("ADMIN", after, 2);
+
+        assertEquals(List.of("c"), response.getLogins());
+        assertNull(response.getNextAfter(), "На последней странице nextAfter должен быть null");
+    }
+
+    @Test
+    void testGetRolesByLogin_adminSuccess() {
+        Role userRole = Role.builder().id("USER").name("User").build();
+        when(userRepository.findRoleIdsByLogin("user1")).thenReturn(List.of("USER"));
+        when(roleCatalog.role("USER")).thenReturn(userRole);
 
         UserRoleResponseDto response = userRoleService.getRolesByLogin("user1", "admin", true);
 
         assertEquals("user1", response.getUserLogin());
-        assertEquals("USER", response.getRoles().iterator().next().getId());
-        verify(userRepository, times(1)).findByLogin("user1");
+        assertSame(userRole, response.getRoles().iterator().next(), "Роль должна браться из справочника");
+        verify(userRepository, times(1)).findRoleIdsByLogin("user1");
+        verify(userRepository, never()).findByLogin(any());
     }
 
     @Test
     void testGetRolesByLogin_selfSuccess() {
-        User user = User.builder()
-                .id(UUID.randomUUID())
-                .login("user1")
-                .roles(Set.of(Role.builder().id("USER").build()))
-                .build();
-
-        when(userRepository.findByLogin("user1")).thenReturn(Optional.of(user));
+        when(userRepository.findRoleIdsByLogin("user1")).thenReturn(List.of("USER"));
+        when(roleCatalog.role("USER")).thenReturn(Role.builder().id("USER").build());
 
         UserRoleResponseDto response = userRoleService.getRolesByLogin("user1", "user1", false);
 
         assertEquals("user1", response.getUserLogin());
         assertEquals("USER", response.getRoles().iterator().next().getId());
-        verify(userRepository, times(1)).findByLogin("user1");
+        verify(userRepository, times(1)).findRoleIdsByLogin("user1");
     }
 
     @Test
     void testGetRolesByLogin_accessDenied() {
         assertThrows(AccessDeniedException.class, () -> userRoleService.getRolesByLogin("admin", "user1", false));
 
-        verify(userRepository, never()).findByLogin("admin");
+        verify(userRepository, never()).findRoleIdsByLogin("admin");
     }
 
     @Test
     void testGetRolesByLogin_userNotFound() {
-        when(userRepository.findByLogin("nonexistent")).thenReturn(Optional.empty());
+        when(userRepository.findRoleIdsByLogin("nonexistent")).thenReturn(List.of());
 
         UserNotFoundException exception = assertThrows(
                 UserNotFoundException.class,
@@ -168,7 +288,17 @@ class UserRoleServiceTest {
         );
 
         assertEquals("User with id nonexistent not found", exception.getMessage());
-        verify(userRepository, times(1)).findByLogin("nonexistent");
+        verify(userRepository, times(1)).findRoleIdsByLogin("nonexistent");
+    }
+
+    @Test
+    void testGetRolesByLogin_whenNoRoles_returnEmpty() {
+        when(userRepository.findRoleIdsByLogin("user1")).thenReturn(Arrays.asList((String) null));
+
+        UserRoleResponseDto response = userRoleService.getRolesByLogin("user1", "user1", false);
+
+        assertTrue(response.getRoles().isEmpty());
+        verifyNoInteractions(roleCatalog);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package org.ex9.authservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final RateLimitProperties.Limit twoPerMinute = new RateLimitProperties.Limit(2, Duration.ofMinutes(1));
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new AuthRateLimits(new RateLimitProperties(true, 1000, twoPerMinute, twoPerMinute, twoPerMinute), new SimpleMeterRegistry()),
+            new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    private MockHttpServletResponse perform(String method, String path, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void testDoFilter_whenSignInLimitExceeded_return429WithRetryAfter() throws Exception {
+        assertEquals(200, perform("POST", "/auth/signin", "10.0.0.1").getStatus());
+        assertEquals(200, perform("POST", "/auth/signin", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = perform("POST", "/auth/signin", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("\"message\""));
+        assertEquals(200, perform("POST", "/auth/signin", "10.0.0.2").getStatus(), "Другой IP не должен ограничиваться");
+        assertEquals(200, perform("PUT", "/auth/signup", "10.0.0.1").getStatus(), "Лимиты входа и регистрации независимы");
+    }
+
+    @Test
+    void testDoFilter_whenOtherEndpoint_notLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform("POST", "/auth/refresh", "10.0.0.3").getStatus());
+            assertEquals(200, perform("GET", "/auth/signin", "10.0.0.3").getStatus());
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.ex9.authservice.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    private RateLimiter limiter(int requests, Duration period) {
+        return new RateLimiter("test", new RateLimitProperties.Limit(requests, period), 1000, meterRegistry, now::get);
+    }
+
+    @Test
+    void testTryAcquire_allowBurstThenReject() {
+        RateLimiter limiter = limiter(5, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("1.2.3.4"), "Запрос №" + i + " должен пройти в пределах всплеска");
+        }
+        long wait = limiter.tryAcquire("1.2.3.4");
+
+        assertEquals(TimeUnit.SECONDS.toNanos(12), wait, "Следующий запрос разрешается через период / лимит");
+        assertEquals(0, limiter.tryAcquire("5.6.7.8"), "Лимиты разных ключей независимы");
+        assertEquals(1.0, meterRegistry.get("http.rate-limit.rejected").tag("limit", "test").counter().count());
+    }
+
+    @Test
+    void testTryAcquire_refillOverTime() {
+        RateLimiter limiter = limiter(5, Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("user1");
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(12));
+        assertEquals(0, limiter.tryAcquire("user1"));
+        assertTrue(limiter.tryAcquire("user1") > 0, "За 12 секунд восстанавливается только один запрос");
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("user1"), "После простоя в период доступен весь всплеск");
+        }
+    }
+
+    @Test
+    void testTryAcquire_whenConcurrent_neverExceedLimit() throws Exception {
+        RateLimiter limiter = limiter(1000, Duration.ofHours(1));
+        LongAdder allowed = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire("1.2.3.4") == 0) {
+                            allowed.increment();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000, allowed.sum(), "Под конкуренцией пропускается ровно лимит запросов");
+    }
+
+}
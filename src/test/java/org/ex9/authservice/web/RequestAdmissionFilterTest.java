@@ -0,0 +1,102 @@
+package org.ex9.authservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestAdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private RequestAdmissionFilter filter;
+
+    private Future<?> holder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new RequestAdmissionFilter(new RequestAdmissionProperties(true, 1, Duration.ofMillis(50), 2),
+                new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+        FilterChain blocking = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        holder = executor.submit(() -> {
+            filter.doFilter(new MockHttpServletRequest("GET", "/user-roles/user1"), new MockHttpServletResponse(), blocking);
+            return null;
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS), "Первый запрос должен получить разрешение");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void testDoFilter_whenNoPermitAvailable_return503WithRetryAfter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/user-roles/user2"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"message\""));
+        assertNull(chain.getRequest(), "Отклонённый запрос не должен доходить до цепочки фильтров");
+        assertEquals(1.0, meterRegistry.get("http.admission.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("http.admission.active").gauge().value());
+    }
+
+    @Test
+    void testDoFilter_whenPermitReleased_admitNextRequest() throws Exception {
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/user-roles/user2"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(0.0, meterRegistry.get("http.admission.active").gauge().value());
+    }
+
+    @Test
+    void testDoFilter_whenActuator_bypassAdmission() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+
+}